@@ -0,0 +1,217 @@
+package com.eurekaserver;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Capacity harness for eureka-server.
+ *
+ * Starts the server in this JVM on a random port. It then simulates N client instances over
+ * the same REST API real clients use: each one registers, renews its lease every renew
+ * interval and fetches the registry delta every fetch interval, on its own virtual thread.
+ * At the end it reports:
+ * <ul>
+ *     <li>achieved renewals per second;</li>
+ *     <li>register and delta-fetch latency percentiles;</li>
+ *     <li>heap used after GC, before and after registration, as the memory cost per
+ *     instance.</li>
+ * </ul>
+ *
+ * Arguments: instances, duration in seconds, renew interval in seconds, fetch interval in
+ * seconds. The defaults are 5000 instances for 120 s at the stock 30 s intervals. Shorter
+ * intervals compress a larger fleet into fewer simulated instances.
+ */
+public class RegistryLoadHarness {
+
+    private static final int APPLICATIONS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+        int renewSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int fetchSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        System.out.println("=== Eureka Registry Load Harness ===");
+        System.out.printf("%d instances in %d applications for %d s, renew every %d s, fetch delta every %d s%n%n",
+                instances, APPLICATIONS, durationSeconds, renewSeconds, fetchSeconds);
+
+        ConfigurableApplicationContext server = SpringApplication.run(EurekaServerApplication.class,
+                "--server.port=0",
+                "--eureka.fast-start.enabled=false",
+                "--eureka.server.enable-self-preservation=false",
+                "--logging.level.root=WARN");
+        String baseUrl = "http://localhost:" + server.getEnvironment().getProperty("local.server.port") + "/eureka";
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = heapUsedAfterGc(memory);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < instances; i++) {
+                SimulatedInstance instance = new SimulatedInstance(baseUrl, "LOADTEST-APP-" + (i % APPLICATIONS), i);
+                clients.submit(() -> instance.run(client, stats, deadline,
+                        TimeUnit.SECONDS.toNanos(renewSeconds), TimeUnit.SECONDS.toNanos(fetchSeconds)));
+            }
+            Thread.sleep(Math.min(TimeUnit.SECONDS.toMillis(durationSeconds), 30_000));
+            long heapRegistered = heapUsedAfterGc(memory);
+            System.out.printf("Heap used after GC: %d MB before clients, %d MB with %d instances registered (~%d bytes/instance)%n",
+                    heapBefore >> 20, heapRegistered >> 20, stats.registered.sum(),
+                    stats.registered.sum() == 0 ? 0 : (heapRegistered - heapBefore) / stats.registered.sum());
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Registered: %d (failed %d)%n", stats.registered.sum(), stats.registerFailures.sum());
+        System.out.printf("Renewals: %d (failed %d), %.0f renewals/s%n",
+                stats.renewals.sum(), stats.renewalFailures.sum(), stats.renewals.sum() / elapsedSeconds);
+        System.out.printf("Delta fetches: %d (failed %d), %.0f fetches/s, %d MB received%n",
+                stats.fetches.sum(), stats.fetchFailures.sum(), stats.fetches.sum() / elapsedSeconds,
+                stats.fetchedBytes.sum() >> 20);
+        printLatencies("Register", stats.registerLatencies);
+        printLatencies("Renew", stats.renewLatencies);
+        printLatencies("Delta fetch", stats.fetchLatencies);
+
+        server.close();
+    }
+
+    private static long heapUsedAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void printLatencies(String label, ConcurrentLinkedQueue<Long> latencies) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%s latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n", label,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(sortedNanos.length * quantile) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Stats {
+        final LongAdder registered = new LongAdder();
+        final LongAdder registerFailures = new LongAdder();
+        final LongAdder renewals = new LongAdder();
+        final LongAdder renewalFailures = new LongAdder();
+        final LongAdder fetches = new LongAdder();
+        final LongAdder fetchFailures = new LongAdder();
+        final LongAdder fetchedBytes = new LongAdder();
+        final ConcurrentLinkedQueue<Long> registerLatencies = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Long> renewLatencies = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Long> fetchLatencies = new ConcurrentLinkedQueue<>();
+    }
+
+    private record SimulatedInstance(String baseUrl, String app, int index) {
+
+        String instanceId() {
+            return app.toLowerCase(Locale.ROOT) + ":" + index;
+        }
+
+        void run(HttpClient client, Stats stats, long deadline, long renewNanos, long fetchNanos) {
+            try {
+                // Stagger start-up, as a rolling deploy would, rather than registering all at once.
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                TimeUnit.NANOSECONDS.sleep(random.nextLong(Math.min(renewNanos, TimeUnit.SECONDS.toNanos(10))));
+                if (!call(client, register(), stats.registerLatencies, stats.registered, stats.registerFailures, null)) {
+                    return;
+                }
+
+                long nextRenew = System.nanoTime() + renewNanos;
+                long nextFetch = System.nanoTime() + random.nextLong(fetchNanos);
+                while (true) {
+                    long next = Math.min(nextRenew, nextFetch);
+                    if (next >= deadline) {
+                        return;
+                    }
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, next - System.nanoTime()));
+                    if (next == nextRenew) {
+                        call(client, renew(), stats.renewLatencies, stats.renewals, stats.renewalFailures, null);
+                        nextRenew += renewNanos;
+                    } else {
+                        call(client, fetchDelta(), stats.fetchLatencies, stats.fetches, stats.fetchFailures, stats.fetchedBytes);
+                        nextFetch += fetchNanos;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private boolean call(HttpClient client, HttpRequest request, ConcurrentLinkedQueue<Long> latencies,
+                             LongAdder succeeded, LongAdder failed, LongAdder bytes) throws InterruptedException {
+            long sentAt = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                latencies.add(System.nanoTime() - sentAt);
+                if (response.statusCode() / 100 != 2) {
+                    failed.increment();
+                    return false;
+                }
+                succeeded.increment();
+                if (bytes != null) {
+                    bytes.add(response.body().length);
+                }
+                return true;
+            } catch (IOException e) {
+                failed.increment();
+                return false;
+            }
+        }
+
+        private HttpRequest register() {
+            String host = "10.%d.%d.%d".formatted(index >> 16 & 0xff, index >> 8 & 0xff, index & 0xff);
+            String body = """
+                    {"instance":{"instanceId":"%s","hostName":"%s","app":"%s","ipAddr":"%s",\
+                    "vipAddress":"%s","status":"UP","port":{"$":8080,"@enabled":"true"},\
+                    "securePort":{"$":443,"@enabled":"false"},\
+                    "dataCenterInfo":{"@class":"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo","name":"MyOwn"},\
+                    "leaseInfo":{"renewalIntervalInSecs":30,"durationInSecs":90}}}"""
+                    .formatted(instanceId(), host, app, host, app.toLowerCase(Locale.ROOT));
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/apps/" + app))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest renew() {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/apps/" + app + "/" + instanceId() + "?status=UP"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+
+        private HttpRequest fetchDelta() {
+            // Real clients ask for gzip; the server answers from its cached compressed payload.
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/apps/delta"))
+                    .header("Accept", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.eurekaserver;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableEurekaServer
+@EnableScheduling
 @SpringBootApplication
 public class EurekaServerApplication {
     public static void main(String[] args) {
@@ -0,0 +1,123 @@
+package com.eurekaserver;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fast-start mode: keeps a gzipped copy of the registry on local disk and reloads it when
+ * the server boots.
+ *
+ * A standalone server normally starts empty. Until every client's next heartbeat or
+ * registration has come in, fetches return an incomplete registry. With a recent snapshot
+ * restored, clients see the instances that were known before the restart straight away.
+ * Restored entries get a fresh lease, so any instance that died meanwhile is evicted after
+ * one lease duration, as usual. A snapshot older than {@code max-age} is ignored, and an
+ * instance that has already re-registered keeps its live registration.
+ */
+@Component
+@ConditionalOnProperty(name = "eureka.fast-start.enabled", havingValue = "true")
+public class RegistrySnapshotter {
+
+    private final Logger logger = LoggerFactory.getLogger(RegistrySnapshotter.class);
+    private final CodecWrapper codec = CodecWrappers.getCodec(CodecWrappers.JacksonJson.class);
+    private final PeerAwareInstanceRegistry registry;
+    private final Path file;
+    private final Duration maxAge;
+
+    // Until the snapshot has been restored, the registry is missing everything the snapshot
+    // holds; writing it out before then would overwrite the snapshot with less.
+    private volatile boolean restored;
+
+    public RegistrySnapshotter(PeerAwareInstanceRegistry registry,
+                               @Value("${eureka.fast-start.file:eureka-registry.json.gz}") Path file,
+                               @Value("${eureka.fast-start.max-age:5m}") Duration maxAge) {
+        this.registry = registry;
+        this.file = file;
+        this.maxAge = maxAge;
+    }
+
+    @EventListener(EurekaRegistryAvailableEvent.class)
+    public void restore() {
+        try {
+            if (!Files.exists(file)) {
+                logger.info("No registry snapshot at {}, starting empty", file);
+                return;
+            }
+            Instant writtenAt = Files.getLastModifiedTime(file).toInstant();
+            if (writtenAt.isBefore(Instant.now().minus(maxAge))) {
+                logger.info("Registry snapshot at {} is from {}, older than {}; starting empty", file, writtenAt, maxAge);
+                return;
+            }
+
+            Applications applications;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                applications = codec.decode(in, Applications.class);
+            }
+            int count = 0;
+            for (Application application : applications.getRegisteredApplications()) {
+                for (InstanceInfo instance : application.getInstances()) {
+                    if (registry.getInstanceByAppAndId(application.getName(), instance.getId(), false) != null) {
+                        continue;
+                    }
+                    int leaseDuration = instance.getLeaseInfo() != null
+                            ? instance.getLeaseInfo().getDurationInSecs() : LeaseInfo.DEFAULT_LEASE_DURATION;
+                    registry.register(instance, leaseDuration, true);
+                    count++;
+                }
+            }
+            logger.info("Restored {} instances from registry snapshot written at {}", count, writtenAt);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore registry snapshot from {}, starting empty: {}", file, e.getMessage());
+        } finally {
+            restored = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${eureka.fast-start.snapshot-interval:30s}")
+    public void snapshot() {
+        if (!restored) {
+            return;
+        }
+        Applications applications = registry.getApplications();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                codec.encode(applications, out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote registry snapshot of {} applications to {}", applications.size(), file);
+        } catch (IOException e) {
+            logger.warn("Could not write registry snapshot to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+}
@@ -0,0 +1,69 @@
+package com.fastpass.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Jackson JSON with CBOR for FastPass customers, single and as a batched lookup
+ * answer: encode and decode cost. Payload sizes are printed during setup.
+ *
+ * Run with {@code ./gradlew :fastpass-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<FastPassCustomer>> CUSTOMER_LIST = new TypeReference<>() { };
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"1", "100"})
+    public int customers;
+
+    private ObjectMapper mapper;
+    private List<FastPassCustomer> batch;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        mapper = format.equals("cbor") ? CBORMapper.builder().build() : JsonMapper.builder().build();
+        batch = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            batch.add(new FastPassCustomer("fp-" + (800 + i), "Customer " + i, "555-01" + (i % 100), 19.50f + i));
+        }
+        encoded = mapper.writeValueAsBytes(batch);
+        System.out.printf("%n%s payload for %d customers: %d bytes%n", format, customers, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return mapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public List<FastPassCustomer> decode() {
+        return mapper.readValue(encoded, CUSTOMER_LIST);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent debit throughput of {@link InMemoryFastPassCustomerStore} across all cores,
+ * from every thread hitting one account to charges spread over many accounts.
+ *
+ * Run with {@code ./gradlew :fastpass-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class FastPassChargeBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int accounts;
+
+    private FastPassCustomerStore store;
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        store = new InMemoryFastPassCustomerStore();
+        ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = "FP" + i;
+            store.put(new FastPassCustomer(ids[i], "Customer " + i, "555-000-0000", 1_000_000_000f));
+        }
+    }
+
+    @Benchmark
+    public BalanceUpdate debit() {
+        return store.debit(ids[ThreadLocalRandom.current().nextInt(accounts)], 125);
+    }
+}
@@ -0,0 +1,79 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows that {@link InMemoryFastPassCustomerStore} lookups stay flat from a handful of
+ * customers to ten million, while the original case-insensitive scan grows with the list.
+ *
+ * Run with {@code ./gradlew :fastpass-service:jmh}. The 10M case needs a large heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FastPassLookupBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"3", "10000", "10000000"})
+    public int customers;
+
+    private List<FastPassCustomer> customerList;
+    private FastPassCustomerStore store;
+    private String[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        customerList = new ArrayList<>(customers);
+        store = new InMemoryFastPassCustomerStore();
+        for (int i = 0; i < customers; i++) {
+            FastPassCustomer customer = new FastPassCustomer("FP" + i, "Customer " + i, "555-000-0000", 10f);
+            customerList.add(customer);
+            store.put(customer);
+        }
+
+        // Probe with lower-case ids so both paths pay for the case-insensitive match.
+        Random random = new Random(42);
+        probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = "fp" + random.nextInt(customers);
+        }
+    }
+
+    @Benchmark
+    public FastPassCustomer streamScan() {
+        String fastPassId = nextProbe();
+        return customerList.stream()
+                .filter(customer -> fastPassId.equalsIgnoreCase(customer.fastPassId()))
+                .findAny().get();
+    }
+
+    @Benchmark
+    public FastPassCustomer indexedStore() {
+        return store.find(nextProbe());
+    }
+
+    private String nextProbe() {
+        return probes[next++ & (PROBES - 1)];
+    }
+}
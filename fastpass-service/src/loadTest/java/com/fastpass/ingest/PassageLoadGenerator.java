@@ -0,0 +1,117 @@
+package com.fastpass.ingest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-loop load generator for the passage ingest path.
+ *
+ * Sends passages at a fixed target rate, in batches, to {@code POST /passages} and then
+ * prints achieved throughput, request latency percentiles and the server's own pipeline
+ * counters, so the pipeline can be sized for peak commute traffic.
+ *
+ * Arguments: base URL, target passages per second, duration in seconds, passages per
+ * request, max requests in flight.
+ */
+public class PassageLoadGenerator {
+
+    private static final String[] FASTPASS_IDS = {"800", "801", "802"};
+    private static final int[] STATION_IDS = {1000, 1001, 1002, 1003};
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int passagesPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int maxInFlight = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        System.out.println("=== Passage Ingest Load Test ===");
+        System.out.printf("Target: %s, %d passages/s for %d s, %d per request, %d in flight%n%n",
+                baseUrl, passagesPerSecond, durationSeconds, batchSize, maxInFlight);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder accepted = new LongAdder();
+        LongAdder throttled = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        long requestsPerSecond = Math.max(1, passagesPerSecond / batchSize);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long totalRequests = requestsPerSecond * durationSeconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < totalRequests; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            inFlight.acquire();
+            long sentAt = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/passages"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(passageBatch(batchSize)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                latencies.add(System.nanoTime() - sentAt);
+                if (error != null) {
+                    failed.increment();
+                } else if (response.statusCode() == 202) {
+                    accepted.add(batchSize);
+                } else if (response.statusCode() == 503) {
+                    throttled.increment();
+                } else {
+                    failed.increment();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("Requests: %d, passages accepted: %d, throttled requests (503): %d, failed: %d%n",
+                sorted.length, accepted.sum(), throttled.sum(), failed.sum());
+        System.out.printf("Accepted throughput: %.0f passages/s%n", accepted.sum() / elapsedSeconds);
+        System.out.printf("Request latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+
+        // Give the pipeline a moment to drain before reading its counters.
+        Thread.sleep(2_000);
+        HttpResponse<String> stats = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/passages/stats")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println("Server pipeline stats: " + stats.body());
+    }
+
+    private static String passageBatch(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder json = new StringBuilder(size * 80).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"fastPassId\":\"").append(FASTPASS_IDS[random.nextInt(FASTPASS_IDS.length)])
+                    .append("\",\"stationId\":").append(STATION_IDS[random.nextInt(STATION_IDS.length)])
+                    .append(",\"passedAt\":\"").append(Instant.now()).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(sortedNanos.length * quantile) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
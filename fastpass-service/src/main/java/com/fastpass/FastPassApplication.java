@@ -2,6 +2,9 @@ package com.fastpass;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.client.RestClient;
 
 @SpringBootApplication
 public class FastPassApplication {
@@ -9,4 +12,10 @@ public class FastPassApplication {
     public static void main(String[] args) {
         SpringApplication.run(FastPassApplication.class, args);
     }
+
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder() {
+        return RestClient.builder();
+    }
 }
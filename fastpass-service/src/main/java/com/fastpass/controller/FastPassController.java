@@ -1,33 +1,112 @@
 package com.fastpass.controller;
 
 import com.fastpass.domain.FastPassCustomer;
+import com.fastpass.store.BalanceUpdate;
+import com.fastpass.store.FastPassCustomerStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 public class FastPassController {
 
-    private final List<FastPassCustomer> customers;
+    private final FastPassCustomerStore customerStore;
     private final Logger logger = LoggerFactory.getLogger(FastPassController.class);
 
-    public FastPassController() {
-        customers = new ArrayList<>();
-        customers.add(new FastPassCustomer("800", "Omar Zidan", "555-123-4567", 19.5f));
-        customers.add(new FastPassCustomer("801", "Maggie Well", "555-321-7654", 11.5f));
-        customers.add(new FastPassCustomer("802", "Omar Tiffany wallace", "555-987-6543", 9.5f));
+    private final Duration simulatedStorageLatency;
+
+    public FastPassController(FastPassCustomerStore customerStore,
+                              @Value("${fastpass.store.simulated-latency:0ms}") Duration simulatedStorageLatency) {
+        this.customerStore = customerStore;
+        this.simulatedStorageLatency = simulatedStorageLatency;
     }
 
     @RequestMapping("/fastpass")
     public FastPassCustomer getFastPassById(@RequestParam String fastPassId) {
         logger.info("Fastpast customer is requested: {}", fastPassId);
-        return customers.stream()
-                .filter(customer -> fastPassId.equalsIgnoreCase(customer.fastPassId()))
-                .findAny().get();
+        simulateStorageLatency();
+        FastPassCustomer customer = customerStore.find(fastPassId);
+        if (customer == null) {
+            throw new FastPassCustomerNotFoundException(fastPassId);
+        }
+        return customer;
+    }
+
+    /**
+     * Looks up several customers in one call. The result is in request order, with
+     * {@code null} for ids that have no account, so callers batching lookups can match
+     * answers to requests by position.
+     */
+    @PostMapping("/fastpass/lookup")
+    public List<FastPassCustomer> getFastPassesByIds(@RequestBody List<String> fastPassIds) {
+        logger.debug("Fastpass customers are requested in batch: {}", fastPassIds.size());
+        List<FastPassCustomer> customers = new ArrayList<>(fastPassIds.size());
+        for (String fastPassId : fastPassIds) {
+            customers.add(customerStore.find(fastPassId));
+        }
+        return customers;
+    }
+
+    /**
+     * Charges a toll to the account. Amounts are exact minor currency units (cents); a
+     * charge that would overdraw the account is rejected with 409 and changes nothing.
+     */
+    @PostMapping("/fastpass/{fastPassId}/debit")
+    public BalanceUpdate debit(@PathVariable String fastPassId, @RequestParam long amountMinor) {
+        requirePositive(amountMinor);
+        BalanceUpdate update = customerStore.debit(fastPassId, amountMinor);
+        if (update == null) {
+            throw new FastPassCustomerNotFoundException(fastPassId);
+        }
+        if (!update.applied()) {
+            throw new InsufficientBalanceException(fastPassId, update.balanceMinor(), amountMinor);
+        }
+        return update;
+    }
+
+    @PostMapping("/fastpass/{fastPassId}/credit")
+    public BalanceUpdate credit(@PathVariable String fastPassId, @RequestParam long amountMinor) {
+        requirePositive(amountMinor);
+        BalanceUpdate update = customerStore.credit(fastPassId, amountMinor);
+        if (update == null) {
+            throw new FastPassCustomerNotFoundException(fastPassId);
+        }
+        if (!update.applied()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Credit would overflow the balance of " + fastPassId);
+        }
+        return update;
+    }
+
+    /**
+     * Stands in for a remote account store when {@code fastpass.store.simulated-latency} is
+     * set, so platform- and virtual-thread modes can be compared under blocking I/O.
+     */
+    private void simulateStorageLatency() {
+        if (simulatedStorageLatency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(simulatedStorageLatency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void requirePositive(long amountMinor) {
+        if (amountMinor <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "amountMinor must be positive");
+        }
     }
 }
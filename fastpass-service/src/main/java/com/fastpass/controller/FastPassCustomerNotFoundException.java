@@ -0,0 +1,11 @@
+package com.fastpass.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class FastPassCustomerNotFoundException extends RuntimeException {
+    public FastPassCustomerNotFoundException(String fastPassId) {
+        super("No FastPass customer with id " + fastPassId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.fastpass.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientBalanceException extends RuntimeException {
+    public InsufficientBalanceException(String fastPassId, long balanceMinor, long amountMinor) {
+        super("FastPass " + fastPassId + " has " + balanceMinor + " minor units, cannot debit " + amountMinor);
+    }
+}
@@ -0,0 +1,20 @@
+package com.fastpass.ingest;
+
+/**
+ * Counters of the passage pipeline since startup. Commit latency runs from the moment a
+ * passage was queued until its batch was charged. {@code failedBatches} counts batches
+ * abandoned part-way by an unexpected error.
+ */
+public record IngestStats(
+        long accepted,
+        long rejected,
+        int queued,
+        long batches,
+        long failedBatches,
+        long charged,
+        long insufficientBalance,
+        long unknownAccount,
+        long unpriced,
+        long averageCommitLatencyMicros,
+        long maxCommitLatencyMicros
+) { }
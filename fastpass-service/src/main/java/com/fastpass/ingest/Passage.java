@@ -0,0 +1,12 @@
+package com.fastpass.ingest;
+
+import java.time.Instant;
+
+/**
+ * A vehicle passing a toll station.
+ */
+public record Passage(
+        String fastPassId,
+        Integer stationId,
+        Instant passedAt
+) { }
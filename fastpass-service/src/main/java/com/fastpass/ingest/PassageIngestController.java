@@ -0,0 +1,59 @@
+package com.fastpass.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class PassageIngestController {
+
+    private final PassageIngestPipeline pipeline;
+    private final Logger logger = LoggerFactory.getLogger(PassageIngestController.class);
+
+    public PassageIngestController(PassageIngestPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Accepts passages for asynchronous charging. When the pipeline is saturated, the
+     * passages that did not fit are refused with 503 and a {@code Retry-After} header; the
+     * response says how many of the leading passages were accepted. A passage without an
+     * account, station or time is rejected with 400 before any of the request is queued.
+     */
+    @PostMapping("/passages")
+    public ResponseEntity<Map<String, Integer>> ingest(@RequestBody List<Passage> passages) throws InterruptedException {
+        for (int i = 0; i < passages.size(); i++) {
+            requireValid(i, passages.get(i));
+        }
+        int accepted = pipeline.offer(passages);
+        if (accepted < passages.size()) {
+            logger.warn("Passage pipeline saturated: accepted {} of {}", accepted, passages.size());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(Map.of("accepted", accepted));
+        }
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+    }
+
+    @GetMapping("/passages/stats")
+    public IngestStats stats() {
+        return pipeline.stats();
+    }
+
+    private static void requireValid(int index, Passage passage) {
+        if (passage == null || passage.fastPassId() == null || passage.fastPassId().isBlank()
+                || passage.stationId() == null || passage.passedAt() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Passage " + index + " needs a fastPassId, stationId and passedAt");
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.fastpass.ingest;
+
+import com.fastpass.store.BalanceUpdate;
+import com.fastpass.store.FastPassCustomerStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prices vehicle passages and debits them from FastPass accounts in micro-batches.
+ *
+ * Passages wait in a bounded queue. A single worker drains up to {@code batch-size} of
+ * them, or whatever arrived within {@code max-batch-wait}, prices the whole batch with one
+ * call to tollrate-service and then applies the debits. Transient pricing failures (5xx,
+ * I/O errors, timeouts) are retried with backoff, growing from {@code retry-backoff} up to
+ * {@code max-retry-backoff}, for as long as they last. A slow or unavailable tollrate-service
+ * therefore stalls the worker, the queue fills up, and {@link #offer} starts refusing
+ * passages: that refusal is the back-pressure signal callers see. A batch that
+ * tollrate-service rejects outright is split in halves until the passage it cannot price is
+ * isolated, and only that passage is counted as unpriced. On shutdown the worker finishes
+ * what is already queued, for up to {@code shutdown-timeout}, before it stops.
+ */
+@Component
+public class PassageIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PassageIngestPipeline.class);
+
+    private final TollQuoteClient quoteClient;
+    private final FastPassCustomerStore customerStore;
+    private final BlockingQueue<QueuedPassage> queue;
+    private final int batchSize;
+    private final Duration maxBatchWait;
+    private final Duration offerTimeout;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration shutdownTimeout;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder charged = new LongAdder();
+    private final LongAdder insufficientBalance = new LongAdder();
+    private final LongAdder unknownAccount = new LongAdder();
+    private final LongAdder unpriced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder commitLatencyNanos = new LongAdder();
+    private final LongAccumulator maxCommitLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PassageIngestPipeline(TollQuoteClient quoteClient,
+                                 FastPassCustomerStore customerStore,
+                                 @Value("${fastpass.ingest.queue-capacity:100000}") int queueCapacity,
+                                 @Value("${fastpass.ingest.batch-size:500}") int batchSize,
+                                 @Value("${fastpass.ingest.max-batch-wait:20ms}") Duration maxBatchWait,
+                                 @Value("${fastpass.ingest.offer-timeout:50ms}") Duration offerTimeout,
+                                 @Value("${fastpass.ingest.retry-backoff:50ms}") Duration retryBackoff,
+                                 @Value("${fastpass.ingest.max-retry-backoff:5s}") Duration maxRetryBackoff,
+                                 @Value("${fastpass.ingest.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.quoteClient = quoteClient;
+        this.customerStore = customerStore;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxBatchWait = maxBatchWait;
+        this.offerTimeout = offerTimeout;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "passage-ingest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(shutdownTimeout.toMillis());
+        if (worker.isAlive()) {
+            logger.warn("Passage pipeline did not drain within {}; {} passages left uncharged", shutdownTimeout, queue.size());
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    /**
+     * Queues passages for charging, in order. Returns how many were accepted; the rest were
+     * refused because the queue stayed full for longer than the offer timeout, or because
+     * the pipeline is shutting down.
+     */
+    public int offer(List<Passage> passages) throws InterruptedException {
+        if (!running) {
+            rejected.add(passages.size());
+            return 0;
+        }
+        int count = 0;
+        for (Passage passage : passages) {
+            if (!queue.offer(new QueuedPassage(passage, System.nanoTime()), offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                break;
+            }
+            count++;
+        }
+        accepted.add(count);
+        rejected.add(passages.size() - count);
+        return count;
+    }
+
+    public IngestStats stats() {
+        long batchCount = batches.sum();
+        long committed = charged.sum() + insufficientBalance.sum() + unknownAccount.sum() + unpriced.sum();
+        return new IngestStats(accepted.sum(), rejected.sum(), queue.size(), batchCount, failedBatches.sum(),
+                charged.sum(), insufficientBalance.sum(), unknownAccount.sum(), unpriced.sum(),
+                committed == 0 ? 0 : commitLatencyNanos.sum() / committed / 1_000,
+                maxCommitLatencyNanos.get() / 1_000);
+    }
+
+    private void run() {
+        List<QueuedPassage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedPassage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxBatchWait.toNanos();
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        QueuedPassage next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Passages before the failure may already be charged; skip the rest rather
+                // than retrying them, which could charge those twice.
+                failedBatches.increment();
+                logger.error("Passage batch of {} failed, skipping it", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<QueuedPassage> batch) throws InterruptedException {
+        charge(batch.stream().map(QueuedPassage::passage).toList());
+
+        long now = System.nanoTime();
+        for (QueuedPassage queued : batch) {
+            long latency = now - queued.enqueuedNanos();
+            commitLatencyNanos.add(latency);
+            maxCommitLatencyNanos.accumulate(latency);
+        }
+        batches.increment();
+    }
+
+    private void charge(List<Passage> passages) throws InterruptedException {
+        List<TollQuote> quotes;
+        try {
+            quotes = priceWithRetry(passages);
+        } catch (RuntimeException e) {
+            // Only rejections get here; transient failures are retried until they pass.
+            if (passages.size() == 1) {
+                logger.error("tollrate-service cannot price passage {}, skipping it: {}", passages.getFirst(), e.getMessage());
+                unpriced.increment();
+                return;
+            }
+            int half = passages.size() / 2;
+            charge(passages.subList(0, half));
+            charge(passages.subList(half, passages.size()));
+            return;
+        }
+
+        for (int i = 0; i < passages.size(); i++) {
+            Passage passage = passages.get(i);
+            TollQuote quote = quotes.get(i);
+            if (quote == null || quote.currentRate() == null) {
+                unpriced.increment();
+                continue;
+            }
+            BalanceUpdate update = customerStore.debit(passage.fastPassId(), Math.round(quote.currentRate() * 100.0));
+            if (update == null) {
+                unknownAccount.increment();
+            } else if (!update.applied()) {
+                insufficientBalance.increment();
+            } else {
+                charged.increment();
+            }
+        }
+    }
+
+    private List<TollQuote> priceWithRetry(List<Passage> passages) throws InterruptedException {
+        long backoffMillis = retryBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<TollQuote> quotes = quoteClient.quote(passages);
+                if (quotes == null || quotes.size() != passages.size()) {
+                    throw new IllegalStateException("Expected " + passages.size() + " quotes, got "
+                            + (quotes == null ? 0 : quotes.size()));
+                }
+                return quotes;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                // No attempt limit: giving up would drop the batch and let the queue keep
+                // accepting passages. stop() interrupts this sleep once shutdown-timeout is up.
+                logger.warn("Pricing {} passages failed (attempt {}), retrying in {} ms: {}",
+                        passages.size(), attempt, backoffMillis, e.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, maxRetryBackoff.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Failures worth retrying: tollrate-service erred or could not be reached in time. A 4xx
+     * or an unreadable answer would fail the same way again.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof HttpServerErrorException || e instanceof ResourceAccessException;
+    }
+
+    private record QueuedPassage(Passage passage, long enqueuedNanos) { }
+}
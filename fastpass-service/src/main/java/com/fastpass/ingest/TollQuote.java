@@ -0,0 +1,10 @@
+package com.fastpass.ingest;
+
+/**
+ * A rate quoted by tollrate-service; {@code currentRate} is null for an unknown station.
+ */
+public record TollQuote(
+        Integer stationId,
+        Float currentRate,
+        String timestamp
+) { }
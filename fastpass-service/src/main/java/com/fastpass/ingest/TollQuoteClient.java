@@ -0,0 +1,52 @@
+package com.fastpass.ingest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Prices passages against tollrate-service's rate schedules, a whole micro-batch per call.
+ * Connect and read timeouts keep a hung instance from stalling the ingest worker for good;
+ * they surface as a retryable {@code ResourceAccessException}.
+ */
+@Component
+public class TollQuoteClient {
+
+    private final RestClient restClient;
+
+    public TollQuoteClient(RestClient.Builder loadBalancedRestClientBuilder,
+                           @Value("${fastpass.ingest.quote-connect-timeout:1s}") Duration connectTimeout,
+                           @Value("${fastpass.ingest.quote-read-timeout:5s}") Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(connectTimeout).build());
+        requestFactory.setReadTimeout(readTimeout);
+        this.restClient = loadBalancedRestClientBuilder
+                .baseUrl("http://tollrate-service")
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /**
+     * Returns one quote per passage, in the same order.
+     */
+    public List<TollQuote> quote(List<Passage> passages) {
+        List<QuoteRequest> requests = passages.stream()
+                .map(passage -> new QuoteRequest(passage.stationId(), passage.passedAt()))
+                .toList();
+        return restClient.post()
+                .uri("/tollrate/quotes")
+                .body(requests)
+                .retrieve()
+                .body(new ParameterizedTypeReference<>() {
+                });
+    }
+
+    private record QuoteRequest(Integer stationId, Instant at) { }
+}
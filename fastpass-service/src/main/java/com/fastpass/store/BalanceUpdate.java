@@ -0,0 +1,12 @@
+package com.fastpass.store;
+
+/**
+ * Outcome of a debit or credit. {@code applied} is false when a debit was rejected
+ * because it would overdraw the account, or a credit because it would overflow the
+ * balance. In either case the balance is unchanged.
+ */
+public record BalanceUpdate(
+        String fastPassId,
+        long balanceMinor,
+        boolean applied
+) { }
@@ -0,0 +1,53 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * FastPass customers indexed by their id.
+ *
+ * Ids are matched case-insensitively: implementations key customers by the
+ * {@link #normalize normalized} id once when they are stored, so a lookup normalizes
+ * only the requested id and never compares against every customer.
+ *
+ * Balances are held as exact integer minor units (cents) and updated lock-free per
+ * account, so concurrent charges to different accounts never contend.
+ */
+public interface FastPassCustomerStore {
+
+    /**
+     * Returns the customer with the given id (in any letter case), or {@code null}.
+     */
+    FastPassCustomer find(String fastPassId);
+
+    /**
+     * Adds the customer, or replaces the profile of an existing customer with the same id.
+     * The customer's balance only seeds a new account: an existing balance is changed only by
+     * {@link #debit} and {@link #credit}, so a charge running concurrently is never undone.
+     */
+    void put(FastPassCustomer customer);
+
+    default void putAll(Collection<FastPassCustomer> customers) {
+        customers.forEach(this::put);
+    }
+
+    int size();
+
+    /**
+     * Atomically subtracts the amount (in minor currency units) from the balance unless that
+     * would take it below zero. Returns {@code null} for an unknown account.
+     */
+    BalanceUpdate debit(String fastPassId, long amountMinor);
+
+    /**
+     * Atomically adds the amount (in minor currency units) to the balance unless that would
+     * overflow it. Returns {@code null} for an unknown account.
+     */
+    BalanceUpdate credit(String fastPassId, long amountMinor);
+
+    static String normalize(String fastPassId) {
+        return fastPassId.toLowerCase(Locale.ROOT);
+    }
+}
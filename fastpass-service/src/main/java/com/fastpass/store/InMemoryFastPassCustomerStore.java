@@ -0,0 +1,110 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap-backed {@link FastPassCustomerStore}, the default storage mode.
+ *
+ * Accounts sit in a hash map under their normalized id, so a lookup is a single hash
+ * probe regardless of how many customers there are. Each account owns its balance as an
+ * {@link AtomicLong} of minor units; a debit is a compare-and-set loop on that account only.
+ * Re-putting a customer swaps the account's profile but keeps that same {@code AtomicLong},
+ * so a charge running at the same time is never lost.
+ */
+@Component
+@ConditionalOnProperty(name = "fastpass.store.mode", havingValue = "memory", matchIfMissing = true)
+public class InMemoryFastPassCustomerStore implements FastPassCustomerStore {
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    public InMemoryFastPassCustomerStore() {
+        putAll(List.of(
+                new FastPassCustomer("800", "Omar Zidan", "555-123-4567", 19.5f),
+                new FastPassCustomer("801", "Maggie Well", "555-321-7654", 11.5f),
+                new FastPassCustomer("802", "Omar Tiffany wallace", "555-987-6543", 9.5f)
+        ));
+    }
+
+    @Override
+    public FastPassCustomer find(String fastPassId) {
+        Account account = accounts.get(FastPassCustomerStore.normalize(fastPassId));
+        return account == null ? null : account.toCustomer();
+    }
+
+    @Override
+    public void put(FastPassCustomer customer) {
+        Profile profile = new Profile(customer.fastPassId(), customer.customerFullName(), customer.customerPhone());
+        accounts.compute(FastPassCustomerStore.normalize(customer.fastPassId()), (key, existing) -> {
+            if (existing == null) {
+                long balanceMinor = customer.currentBalance() == null ? 0 : Math.round(customer.currentBalance() * 100.0);
+                return new Account(profile, new AtomicLong(balanceMinor));
+            }
+            existing.profile = profile;
+            return existing;
+        });
+    }
+
+    @Override
+    public int size() {
+        return accounts.size();
+    }
+
+    @Override
+    public BalanceUpdate debit(String fastPassId, long amountMinor) {
+        Account account = accounts.get(FastPassCustomerStore.normalize(fastPassId));
+        if (account == null) {
+            return null;
+        }
+        long current;
+        do {
+            current = account.balanceMinor.get();
+            if (current < amountMinor) {
+                return new BalanceUpdate(account.profile.fastPassId(), current, false);
+            }
+        } while (!account.balanceMinor.compareAndSet(current, current - amountMinor));
+        return new BalanceUpdate(account.profile.fastPassId(), current - amountMinor, true);
+    }
+
+    @Override
+    public BalanceUpdate credit(String fastPassId, long amountMinor) {
+        Account account = accounts.get(FastPassCustomerStore.normalize(fastPassId));
+        if (account == null) {
+            return null;
+        }
+        long current;
+        do {
+            current = account.balanceMinor.get();
+            if (current > Long.MAX_VALUE - amountMinor) {
+                return new BalanceUpdate(account.profile.fastPassId(), current, false);
+            }
+        } while (!account.balanceMinor.compareAndSet(current, current + amountMinor));
+        return new BalanceUpdate(account.profile.fastPassId(), current + amountMinor, true);
+    }
+
+    private record Profile(String fastPassId, String customerFullName, String customerPhone) {
+    }
+
+    private static final class Account {
+
+        private volatile Profile profile;
+        private final AtomicLong balanceMinor;
+
+        private Account(Profile profile, AtomicLong balanceMinor) {
+            this.profile = profile;
+            this.balanceMinor = balanceMinor;
+        }
+
+        FastPassCustomer toCustomer() {
+            Profile current = profile;
+            return new FastPassCustomer(current.fastPassId(), current.customerFullName(), current.customerPhone(),
+                    balanceMinor.get() / 100f);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap {@link FastPassCustomerStore} backed by a memory-mapped file
+ * ({@code fastpass.store.mode=mapped}).
+ *
+ * The file is an open-addressing hash table of fixed 256-byte records, so the index lives
+ * in the file itself: a restart only maps the file again, and the heap holds nothing but
+ * the customer objects materialized for the lookups in flight. Records survive process
+ * restarts through the OS page cache and are forced to disk on shutdown.
+ *
+ * There is a single writer ({@link #put} is synchronized) and any number of lock-free
+ * readers. Each record carries a sequence number that is odd while the record is being
+ * written; readers retry until they see the same even sequence before and after reading.
+ * A record's key never changes once written, so probing only compares stable bytes.
+ * Opening an existing file repairs records a crash left mid-write (see {@link #recover})
+ * and recounts the records, so the header never disagrees with the slots.
+ * Balances are updated outside the sequence protocol with a compare-and-set on the
+ * record's 8-byte balance field, so charges never wait for the writer or each other.
+ */
+@Component
+@ConditionalOnProperty(name = "fastpass.store.mode", havingValue = "mapped")
+public class MappedFastPassCustomerStore implements FastPassCustomerStore {
+
+    private static final int MAGIC = 0x46505331;
+    private static final int LAYOUT_VERSION = 1;
+
+    static final int HEADER_BYTES = 4096;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_LAYOUT_VERSION = 4;
+    private static final int HEADER_CAPACITY = 8;
+    static final int HEADER_COUNT = 12;
+
+    static final int RECORD_BYTES = 256;
+    static final int SEQUENCE = 0;
+    private static final int KEY_HASH = 4;
+    private static final int BALANCE_MINOR = 8;
+    private static final int KEY_LENGTH = 16;
+    private static final int ID_LENGTH = 17;
+    private static final int NAME_LENGTH = 18;
+    private static final int PHONE_LENGTH = 19;
+    static final int KEY = 20;
+    private static final int KEY_MAX = 32;
+    private static final int ID = KEY + KEY_MAX;
+    private static final int ID_MAX = 32;
+    private static final int NAME = ID + ID_MAX;
+    private static final int NAME_MAX = 128;
+    private static final int PHONE = NAME + NAME_MAX;
+    private static final int PHONE_MAX = RECORD_BYTES - PHONE;
+
+    // 4M records per mapping keeps each MappedByteBuffer at 1 GiB, under the 2 GiB limit.
+    private static final int MAX_SEGMENT_BITS = 22;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Logger logger = LoggerFactory.getLogger(MappedFastPassCustomerStore.class);
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final int mask;
+    private final int segmentBits;
+    private final int maxCount;
+
+    public MappedFastPassCustomerStore(@Value("${fastpass.store.file:fastpass-accounts.dat}") Path file,
+                                       @Value("${fastpass.store.capacity:1048576}") int requestedCapacity) throws IOException {
+        boolean existing = Files.exists(file) && Files.size(file) >= HEADER_BYTES;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+        int capacity;
+        if (existing) {
+            if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_LAYOUT_VERSION) != LAYOUT_VERSION) {
+                throw new IllegalStateException("Not a FastPass account file: " + file);
+            }
+            capacity = header.getInt(HEADER_CAPACITY);
+        } else {
+            capacity = Integer.highestOneBit(Math.max(16, requestedCapacity) - 1) << 1;
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_LAYOUT_VERSION, LAYOUT_VERSION);
+            header.putInt(HEADER_CAPACITY, capacity);
+            header.putInt(HEADER_COUNT, 0);
+        }
+        mask = capacity - 1;
+        maxCount = capacity / 4 * 3;
+        segmentBits = Math.min(MAX_SEGMENT_BITS, Integer.numberOfTrailingZeros(capacity));
+
+        long segmentBytes = (long) RECORD_BYTES << segmentBits;
+        segments = new MappedByteBuffer[capacity >>> segmentBits];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+        }
+        if (existing) {
+            recover(file);
+        }
+        logger.info("Mapped FastPass account file {}: {} of {} records used", file, size(), capacity);
+
+        if (size() == 0) {
+            putAll(List.of(
+                    new FastPassCustomer("800", "Omar Zidan", "555-123-4567", 19.5f),
+                    new FastPassCustomer("801", "Maggie Well", "555-321-7654", 11.5f),
+                    new FastPassCustomer("802", "Omar Tiffany wallace", "555-987-6543", 9.5f)
+            ));
+        }
+    }
+
+    @Override
+    public FastPassCustomer find(String fastPassId) {
+        byte[] key = FastPassCustomerStore.normalize(fastPassId).getBytes(StandardCharsets.UTF_8);
+        int slot = slotOf(key);
+        return slot < 0 ? null : readCustomer(segment(slot), offset(slot));
+    }
+
+    @Override
+    public synchronized void put(FastPassCustomer customer) {
+        byte[] key = encode(FastPassCustomerStore.normalize(customer.fastPassId()), KEY_MAX, "id");
+        byte[] id = encode(customer.fastPassId(), ID_MAX, "id");
+        byte[] name = encode(customer.customerFullName(), NAME_MAX, "name");
+        byte[] phone = encode(customer.customerPhone(), PHONE_MAX, "phone");
+        long balanceMinor = customer.currentBalance() == null ? 0 : Math.round(customer.currentBalance() * 100.0);
+
+        int hash = hash(key);
+        int slot = hash & mask;
+        while (true) {
+            MappedByteBuffer buffer = segment(slot);
+            int offset = offset(slot);
+            int sequence = (int) INT.getAcquire(buffer, offset + SEQUENCE);
+            if (sequence == 0) {
+                int count = size();
+                if (count >= maxCount) {
+                    throw new IllegalStateException("FastPass account file is full: " + count + " records");
+                }
+                INT.setVolatile(buffer, offset + SEQUENCE, 1);
+                buffer.putInt(offset + KEY_HASH, hash);
+                buffer.put(offset + KEY_LENGTH, (byte) key.length);
+                buffer.put(offset + KEY, key);
+                writeProfile(buffer, offset, id, name, phone);
+                // Only a new record gets its balance from put: nothing can debit or credit it yet.
+                LONG.setVolatile(buffer, offset + BALANCE_MINOR, balanceMinor);
+                INT.setRelease(buffer, offset + SEQUENCE, 2);
+                INT.setRelease(header, HEADER_COUNT, count + 1);
+                return;
+            }
+            if (keyMatches(buffer, offset, hash, key)) {
+                // The balance belongs to debit and credit, which CAS it concurrently; keep it.
+                INT.setVolatile(buffer, offset + SEQUENCE, sequence + 1);
+                writeProfile(buffer, offset, id, name, phone);
+                INT.setRelease(buffer, offset + SEQUENCE, sequence + 2);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) INT.getAcquire(header, HEADER_COUNT);
+    }
+
+    @Override
+    public BalanceUpdate debit(String fastPassId, long amountMinor) {
+        int slot = slotOf(FastPassCustomerStore.normalize(fastPassId).getBytes(StandardCharsets.UTF_8));
+        if (slot < 0) {
+            return null;
+        }
+        MappedByteBuffer buffer = segment(slot);
+        int offset = offset(slot);
+        long current;
+        do {
+            current = (long) LONG.getVolatile(buffer, offset + BALANCE_MINOR);
+            if (current < amountMinor) {
+                return new BalanceUpdate(readCustomer(buffer, offset).fastPassId(), current, false);
+            }
+        } while (!LONG.compareAndSet(buffer, offset + BALANCE_MINOR, current, current - amountMinor));
+        return new BalanceUpdate(readCustomer(buffer, offset).fastPassId(), current - amountMinor, true);
+    }
+
+    @Override
+    public BalanceUpdate credit(String fastPassId, long amountMinor) {
+        int slot = slotOf(FastPassCustomerStore.normalize(fastPassId).getBytes(StandardCharsets.UTF_8));
+        if (slot < 0) {
+            return null;
+        }
+        MappedByteBuffer buffer = segment(slot);
+        int offset = offset(slot);
+        long current;
+        do {
+            current = (long) LONG.getVolatile(buffer, offset + BALANCE_MINOR);
+            if (current > Long.MAX_VALUE - amountMinor) {
+                return new BalanceUpdate(readCustomer(buffer, offset).fastPassId(), current, false);
+            }
+        } while (!LONG.compareAndSet(buffer, offset + BALANCE_MINOR, current, current + amountMinor));
+        return new BalanceUpdate(readCustomer(buffer, offset).fastPassId(), current + amountMinor, true);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        channel.close();
+    }
+
+    /**
+     * Repairs what a crash in the middle of {@link #put} can leave behind, then stores the
+     * number of occupied slots as the record count. Without this, readers would spin forever
+     * on a record whose sequence stayed odd.
+     *
+     * A sequence of 1 is a first write that never finished, so its key may be incomplete.
+     * The slot is freed: the writer died there, so no later insert can have probed past it.
+     * Any other odd sequence is a profile update that never finished. The key was not part
+     * of that write, so it must still match its hash. Profile lengths are checked and any
+     * torn field is cleared before the sequence is rolled forward to even.
+     */
+    private void recover(Path file) {
+        int count = 0;
+        int discarded = 0;
+        int rolledForward = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            MappedByteBuffer buffer = segment(slot);
+            int offset = offset(slot);
+            int sequence = (int) INT.get(buffer, offset + SEQUENCE);
+            if (sequence == 0) {
+                continue;
+            }
+            if (sequence == 1) {
+                buffer.put(offset, new byte[RECORD_BYTES]);
+                discarded++;
+                continue;
+            }
+            if ((sequence & 1) != 0) {
+                repairProfile(file, slot, buffer, offset);
+                INT.set(buffer, offset + SEQUENCE, sequence + 1);
+                rolledForward++;
+            }
+            count++;
+        }
+        INT.setRelease(header, HEADER_COUNT, count);
+        if (discarded + rolledForward > 0) {
+            logger.warn("Recovered FastPass account file {}: discarded {} unfinished inserts, completed {} unfinished updates",
+                    file, discarded, rolledForward);
+        }
+    }
+
+    private static void repairProfile(Path file, int slot, MappedByteBuffer buffer, int offset) {
+        int keyLength = buffer.get(offset + KEY_LENGTH) & 0xFF;
+        byte[] key = new byte[Math.min(keyLength, KEY_MAX)];
+        buffer.get(offset + KEY, key);
+        if (keyLength == 0 || keyLength > KEY_MAX || hash(key) != buffer.getInt(offset + KEY_HASH)) {
+            throw new IllegalStateException("Corrupt FastPass record in slot " + slot + " of " + file);
+        }
+        if ((buffer.get(offset + ID_LENGTH) & 0xFF) > ID_MAX) {
+            // The key is the normalized id, the closest thing to the original.
+            buffer.put(offset + ID, key);
+            buffer.put(offset + ID_LENGTH, (byte) key.length);
+        }
+        if ((buffer.get(offset + NAME_LENGTH) & 0xFF) > NAME_MAX) {
+            buffer.put(offset + NAME_LENGTH, (byte) 0);
+        }
+        if ((buffer.get(offset + PHONE_LENGTH) & 0xFF) > PHONE_MAX) {
+            buffer.put(offset + PHONE_LENGTH, (byte) 0);
+        }
+    }
+
+    /**
+     * Slot holding the key, or -1 when the key is not stored.
+     */
+    private int slotOf(byte[] key) {
+        if (key.length > KEY_MAX) {
+            return -1;
+        }
+        int hash = hash(key);
+        for (int slot = hash & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            MappedByteBuffer buffer = segment(slot);
+            int offset = offset(slot);
+            int sequence;
+            // 1 means the record is being written for the first time and its key isn't there yet.
+            while ((sequence = (int) INT.getAcquire(buffer, offset + SEQUENCE)) == 1) {
+                Thread.onSpinWait();
+            }
+            if (sequence == 0) {
+                return -1;
+            }
+            if (keyMatches(buffer, offset, hash, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private FastPassCustomer readCustomer(MappedByteBuffer buffer, int offset) {
+        while (true) {
+            int before = (int) INT.getAcquire(buffer, offset + SEQUENCE);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            String id = decode(buffer, offset + ID, buffer.get(offset + ID_LENGTH), ID_MAX);
+            String name = decode(buffer, offset + NAME, buffer.get(offset + NAME_LENGTH), NAME_MAX);
+            String phone = decode(buffer, offset + PHONE, buffer.get(offset + PHONE_LENGTH), PHONE_MAX);
+            long balanceMinor = (long) LONG.getVolatile(buffer, offset + BALANCE_MINOR);
+            VarHandle.acquireFence();
+            if ((int) INT.getOpaque(buffer, offset + SEQUENCE) == before) {
+                return new FastPassCustomer(id, name, phone, balanceMinor / 100f);
+            }
+        }
+    }
+
+    private static void writeProfile(MappedByteBuffer buffer, int offset, byte[] id, byte[] name, byte[] phone) {
+        buffer.put(offset + ID_LENGTH, (byte) id.length);
+        buffer.put(offset + ID, id);
+        buffer.put(offset + NAME_LENGTH, (byte) name.length);
+        buffer.put(offset + NAME, name);
+        buffer.put(offset + PHONE_LENGTH, (byte) phone.length);
+        buffer.put(offset + PHONE, phone);
+    }
+
+    private static boolean keyMatches(MappedByteBuffer buffer, int offset, int hash, byte[] key) {
+        if (buffer.getInt(offset + KEY_HASH) != hash || buffer.get(offset + KEY_LENGTH) != key.length) {
+            return false;
+        }
+        byte[] stored = new byte[key.length];
+        buffer.get(offset + KEY, stored);
+        return Arrays.equals(stored, key);
+    }
+
+    private static String decode(MappedByteBuffer buffer, int index, byte length, int maxBytes) {
+        // A torn read can see any length; clamp it; the sequence check discards the result anyway.
+        byte[] bytes = new byte[Math.min(length & 0xFF, maxBytes)];
+        buffer.get(index, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String value, int maxBytes, String field) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("FastPass " + field + " longer than " + maxBytes + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private MappedByteBuffer segment(int slot) {
+        return segments[slot >>> segmentBits];
+    }
+
+    private int offset(int slot) {
+        return (slot & ((1 << segmentBits) - 1)) * RECORD_BYTES;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fastpass.controller;
+
+import com.fastpass.domain.FastPassCustomer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+@AutoConfigureMockMvc
+class FastPassCborIntegrationTest {
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final JsonMapper jsonMapper = new JsonMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void answersTheSameCustomerInCborAsInJson() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/fastpass").param("fastPassId", "800").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/fastpass").param("fastPassId", "800").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        FastPassCustomer fromCbor = cborMapper.readValue(cbor, FastPassCustomer.class);
+        assertEquals("Omar Zidan", fromCbor.customerFullName());
+        assertEquals(jsonMapper.readValue(json, FastPassCustomer.class), fromCbor);
+    }
+
+    @Test
+    void batchLookupRoundTripsInCbor() throws Exception {
+        byte[] response = mockMvc.perform(post("/fastpass/lookup")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(List.of("801", "nobody", "802"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        FastPassCustomer[] customers = cborMapper.readValue(response, FastPassCustomer[].class);
+        assertEquals(3, customers.length);
+        assertEquals("Maggie Well", customers[0].customerFullName());
+        assertNull(customers[1]);
+        assertEquals("802", customers[2].fastPassId());
+    }
+}
@@ -0,0 +1,193 @@
+package com.fastpass.ingest;
+
+import com.fastpass.domain.FastPassCustomer;
+import com.fastpass.store.BalanceUpdate;
+import com.fastpass.store.InMemoryFastPassCustomerStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PassageIngestPipelineTest {
+
+    private static final int POISON_STATION = 666;
+
+    private final AtomicInteger quoteCalls = new AtomicInteger();
+    private final InMemoryFastPassCustomerStore customerStore = new InMemoryFastPassCustomerStore() {
+        @Override
+        public BalanceUpdate debit(String fastPassId, long amountMinor) {
+            if (fastPassId.equals("boom")) {
+                throw new IllegalStateException("store failure");
+            }
+            return super.debit(fastPassId, amountMinor);
+        }
+    };
+    private PassageIngestPipeline pipeline;
+
+    @AfterEach
+    void stopPipeline() throws InterruptedException {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void aPoisonPassageOnlyCostsItself() throws InterruptedException {
+        start(500, passages -> {
+            if (passages.stream().anyMatch(passage -> passage.stationId() == POISON_STATION)) {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }
+            return priced(passages);
+        });
+        List<Passage> passages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            passages.add(passage("800", i == 6 ? POISON_STATION : 1));
+        }
+
+        assertEquals(10, pipeline.offer(passages));
+        pipeline.stop();
+
+        IngestStats stats = pipeline.stats();
+        assertEquals(9, stats.charged());
+        assertEquals(1, stats.unpriced());
+        assertEquals(0, stats.failedBatches());
+        assertEquals(10.5f, customerStore.find("800").currentBalance().floatValue());
+    }
+
+    @Test
+    void retriesTransientFailures() throws InterruptedException {
+        start(500, passages -> {
+            if (quoteCalls.get() <= 2) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return priced(passages);
+        });
+
+        assertEquals(3, pipeline.offer(List.of(passage("800", 1), passage("801", 1), passage("802", 1))));
+        pipeline.stop();
+
+        assertEquals(3, quoteCalls.get());
+        assertEquals(3, pipeline.stats().charged());
+    }
+
+    @Test
+    void keepsRetryingWhileTollrateIsDown() throws InterruptedException {
+        start(500, passages -> {
+            if (quoteCalls.get() <= 12) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return priced(passages);
+        });
+
+        assertEquals(4, pipeline.offer(List.of(passage("800", 1), passage("801", 1), passage("802", 1), passage("800", 2))));
+        pipeline.stop();
+
+        // Far more attempts than any fixed limit would allow, and nothing written off.
+        assertEquals(13, quoteCalls.get());
+        assertEquals(4, pipeline.stats().charged());
+        assertEquals(0, pipeline.stats().unpriced());
+    }
+
+    @Test
+    void refusesPassagesOnceTheQueueFillsDuringAnOutage() throws InterruptedException {
+        start(10, 2, Duration.ofMillis(200), passages -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+        List<Passage> passages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            passages.add(passage("800", 1));
+        }
+
+        // The worker holds at most one batch, so the queue fills and the rest is refused.
+        assertTrue(pipeline.offer(passages) < passages.size());
+        assertTrue(pipeline.stats().rejected() > 0);
+        assertEquals(0, pipeline.stats().unpriced());
+        pipeline.stop();
+        assertEquals(0, pipeline.stats().charged());
+    }
+
+    @Test
+    void rejectsShortQuoteListsInsteadOfMisattributingThem() throws InterruptedException {
+        start(500, passages -> priced(passages.subList(0, passages.size() - 1)));
+
+        assertEquals(2, pipeline.offer(List.of(passage("800", 1), passage("801", 1))));
+        pipeline.stop();
+
+        // Split down to single passages, each of which still comes back one quote short.
+        assertEquals(2, pipeline.stats().unpriced());
+        assertEquals(19.5f, customerStore.find("800").currentBalance().floatValue());
+    }
+
+    @Test
+    void keepsRunningAfterAnUnexpectedError() throws InterruptedException {
+        start(500, PassageIngestPipelineTest::priced);
+
+        pipeline.offer(List.of(passage("boom", 1)));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (pipeline.stats().failedBatches() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        pipeline.offer(List.of(passage("800", 1)));
+        pipeline.stop();
+
+        assertEquals(1, pipeline.stats().failedBatches());
+        assertEquals(1, pipeline.stats().charged());
+    }
+
+    @Test
+    void drainsTheQueueOnShutdown() throws InterruptedException {
+        customerStore.put(new FastPassCustomer("900", "Ada Lane", "555-000-0001", 1_000_000f));
+        start(10, PassageIngestPipelineTest::priced);
+        List<Passage> passages = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            passages.add(passage("900", 1));
+        }
+
+        assertEquals(1000, pipeline.offer(passages));
+        pipeline.stop();
+
+        assertEquals(1000, pipeline.stats().charged());
+        assertEquals(0, pipeline.offer(List.of(passage("900", 1))));
+    }
+
+    private void start(int batchSize, Function<List<Passage>, List<TollQuote>> pricing) {
+        start(10_000, batchSize, Duration.ofSeconds(10), pricing);
+    }
+
+    private void start(int queueCapacity, int batchSize, Duration shutdownTimeout,
+                       Function<List<Passage>, List<TollQuote>> pricing) {
+        TollQuoteClient quoteClient = new TollQuoteClient(RestClient.builder(), Duration.ofSeconds(1), Duration.ofSeconds(1)) {
+            @Override
+            public List<TollQuote> quote(List<Passage> passages) {
+                quoteCalls.incrementAndGet();
+                return pricing.apply(passages);
+            }
+        };
+        pipeline = new PassageIngestPipeline(quoteClient, customerStore, queueCapacity, batchSize,
+                Duration.ofMillis(50), Duration.ofMillis(50), Duration.ofMillis(1), Duration.ofMillis(10), shutdownTimeout);
+        pipeline.start();
+    }
+
+    private static List<TollQuote> priced(List<Passage> passages) {
+        return passages.stream()
+                .map(passage -> new TollQuote(passage.stationId(), 1.0f, passage.passedAt().toString()))
+                .toList();
+    }
+
+    private static Passage passage(String fastPassId, int stationId) {
+        return new Passage(fastPassId, stationId, Instant.parse("2026-01-05T08:00:00Z"));
+    }
+}
@@ -0,0 +1,180 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same balance checks against both stores.
+ */
+class FastPassBalanceTest {
+
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentDebitsNeverOverdrawInMemory() throws Exception {
+        concurrentDebitsNeverOverdraw(new InMemoryFastPassCustomerStore());
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdrawMapped() throws Exception {
+        MappedFastPassCustomerStore store = mapped();
+        concurrentDebitsNeverOverdraw(store);
+        store.close();
+    }
+
+    @Test
+    void debitsAndCreditsBalanceOutInMemory() throws Exception {
+        debitsAndCreditsBalanceOut(new InMemoryFastPassCustomerStore());
+    }
+
+    @Test
+    void debitsAndCreditsBalanceOutMapped() throws Exception {
+        MappedFastPassCustomerStore store = mapped();
+        debitsAndCreditsBalanceOut(store);
+        store.close();
+    }
+
+    @Test
+    void rejectsOverdraftAndOverflowInMemory() {
+        rejectsOverdraftAndOverflow(new InMemoryFastPassCustomerStore());
+    }
+
+    @Test
+    void rejectsOverdraftAndOverflowMapped() throws IOException {
+        MappedFastPassCustomerStore store = mapped();
+        rejectsOverdraftAndOverflow(store);
+        store.close();
+    }
+
+    @Test
+    void profileUpdatesKeepTheBalanceInMemory() throws Exception {
+        profileUpdatesKeepTheBalance(new InMemoryFastPassCustomerStore());
+    }
+
+    @Test
+    void profileUpdatesKeepTheBalanceMapped() throws Exception {
+        MappedFastPassCustomerStore store = mapped();
+        profileUpdatesKeepTheBalance(store);
+        store.close();
+    }
+
+    private MappedFastPassCustomerStore mapped() throws IOException {
+        return new MappedFastPassCustomerStore(directory.resolve("accounts.dat"), 16);
+    }
+
+    private static void concurrentDebitsNeverOverdraw(FastPassCustomerStore store) throws Exception {
+        store.put(new FastPassCustomer("900", "Ada Lane", "555-000-0001", 10f));
+        AtomicInteger applied = new AtomicInteger();
+
+        // 1000 cents, 8 threads trying 250 one-cent debits each: exactly 1000 may succeed.
+        runConcurrently(() -> {
+            for (int i = 0; i < 250; i++) {
+                BalanceUpdate update = store.debit("900", 1);
+                if (update.applied()) {
+                    applied.incrementAndGet();
+                }
+                assertTrue(update.balanceMinor() >= 0);
+            }
+        });
+
+        assertEquals(1000, applied.get());
+        assertEquals(0f, store.find("900").currentBalance().floatValue());
+    }
+
+    private static void debitsAndCreditsBalanceOut(FastPassCustomerStore store) throws Exception {
+        store.put(new FastPassCustomer("900", "Ada Lane", "555-000-0001", 1f));
+        AtomicInteger thread = new AtomicInteger();
+
+        runConcurrently(() -> {
+            boolean credits = thread.getAndIncrement() % 2 == 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (credits) {
+                    store.credit("900", 7);
+                } else {
+                    while (!store.debit("900", 7).applied()) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        });
+
+        assertEquals(1f, store.find("900").currentBalance().floatValue());
+    }
+
+    private static void rejectsOverdraftAndOverflow(FastPassCustomerStore store) {
+        store.put(new FastPassCustomer("900", "Ada Lane", "555-000-0001", 1f));
+
+        BalanceUpdate overdraft = store.debit("900", 101);
+        assertFalse(overdraft.applied());
+        assertEquals(100, overdraft.balanceMinor());
+
+        BalanceUpdate overflow = store.credit("900", Long.MAX_VALUE - 99);
+        assertFalse(overflow.applied());
+        assertEquals(100, overflow.balanceMinor());
+
+        BalanceUpdate toTheLimit = store.credit("900", Long.MAX_VALUE - 100);
+        assertTrue(toTheLimit.applied());
+        assertEquals(Long.MAX_VALUE, toTheLimit.balanceMinor());
+    }
+
+    private static void profileUpdatesKeepTheBalance(FastPassCustomerStore store) throws Exception {
+        store.put(new FastPassCustomer("900", "Ada Lane", "555-000-0001", 100f));
+        AtomicInteger thread = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (thread.getAndIncrement() == 0) {
+                for (int i = 0; i < 1000; i++) {
+                    // Carries a stale balance that must not overwrite the charges.
+                    store.put(new FastPassCustomer("900", "Ada Lane " + i, "555-000-0001", 100f));
+                }
+            } else {
+                for (int i = 0; i < 1000; i++) {
+                    store.debit("900", 1);
+                }
+            }
+        });
+
+        FastPassCustomer customer = store.find("900");
+        assertEquals("Ada Lane 999", customer.customerFullName());
+        assertEquals((10_000 - (THREADS - 1) * 1000) / 100f, customer.currentBalance().floatValue());
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
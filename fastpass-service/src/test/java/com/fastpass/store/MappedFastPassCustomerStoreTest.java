@@ -0,0 +1,137 @@
+package com.fastpass.store;
+
+import com.fastpass.domain.FastPassCustomer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.fastpass.store.MappedFastPassCustomerStore.HEADER_BYTES;
+import static com.fastpass.store.MappedFastPassCustomerStore.HEADER_COUNT;
+import static com.fastpass.store.MappedFastPassCustomerStore.KEY;
+import static com.fastpass.store.MappedFastPassCustomerStore.RECORD_BYTES;
+import static com.fastpass.store.MappedFastPassCustomerStore.SEQUENCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedFastPassCustomerStoreTest {
+
+    private static final int CAPACITY = 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensWithTheSameCustomers() throws IOException {
+        Path file = directory.resolve("accounts.dat");
+        MappedFastPassCustomerStore store = new MappedFastPassCustomerStore(file, CAPACITY);
+        store.put(new FastPassCustomer("A-900", "Ada Lane", "555-000-0001", 4.25f));
+        store.close();
+
+        store = new MappedFastPassCustomerStore(file, CAPACITY);
+        assertEquals(4, store.size());
+        assertEquals(new FastPassCustomer("A-900", "Ada Lane", "555-000-0001", 4.25f), store.find("a-900"));
+        store.close();
+    }
+
+    @Test
+    void completesAnUpdateInterruptedByACrash() throws IOException {
+        Path file = directory.resolve("accounts.dat");
+        new MappedFastPassCustomerStore(file, CAPACITY).close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer records = records(channel);
+            int offset = offsetOf(records, "800");
+            // As if the writer died between the two sequence stores of an update.
+            records.putInt(offset + SEQUENCE, records.getInt(offset + SEQUENCE) + 1);
+            records.force();
+        }
+
+        MappedFastPassCustomerStore store = new MappedFastPassCustomerStore(file, CAPACITY);
+        // Would spin forever on the odd sequence without recovery.
+        assertEquals("Omar Zidan", store.find("800").customerFullName());
+        assertEquals(3, store.size());
+        store.close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer records = records(channel);
+            assertEquals(0, records.getInt(offsetOf(records, "800") + SEQUENCE) & 1);
+        }
+    }
+
+    @Test
+    void discardsAnInsertInterruptedByACrash() throws IOException {
+        Path file = directory.resolve("accounts.dat");
+        new MappedFastPassCustomerStore(file, CAPACITY).close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer records = records(channel);
+            int offset = freeOffset(records);
+            // A first write that got as far as part of its key, with the count never bumped.
+            records.putInt(offset + SEQUENCE, 1);
+            records.put(offset + KEY, "90".getBytes(StandardCharsets.UTF_8));
+            records.force();
+        }
+
+        MappedFastPassCustomerStore store = new MappedFastPassCustomerStore(file, CAPACITY);
+        assertEquals(3, store.size());
+        // Would spin forever on the sequence of 1 without recovery.
+        assertNull(store.find("901"));
+        store.put(new FastPassCustomer("901", "Ben Ray", "555-000-0002", 1f));
+        assertNotNull(store.find("901"));
+        assertEquals(4, store.size());
+        store.close();
+    }
+
+    @Test
+    void recountsRecordsFromTheSlots() throws IOException {
+        Path file = directory.resolve("accounts.dat");
+        new MappedFastPassCustomerStore(file, CAPACITY).close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            // A crash after an insert's final sequence store but before the count was bumped.
+            header.order(ByteOrder.nativeOrder()).putInt(HEADER_COUNT, 2);
+            header.force();
+        }
+
+        MappedFastPassCustomerStore store = new MappedFastPassCustomerStore(file, CAPACITY);
+        assertEquals(3, store.size());
+        store.close();
+    }
+
+    private static MappedByteBuffer records(FileChannel channel) throws IOException {
+        MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, (long) CAPACITY * RECORD_BYTES);
+        records.order(ByteOrder.nativeOrder());
+        return records;
+    }
+
+    private static int offsetOf(MappedByteBuffer records, String key) {
+        byte[] expected = key.getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < CAPACITY * RECORD_BYTES; offset += RECORD_BYTES) {
+            byte[] stored = new byte[expected.length + 1];
+            records.get(offset + KEY, stored);
+            if (records.getInt(offset + SEQUENCE) != 0 && stored[expected.length] == 0
+                    && new String(stored, 0, expected.length, StandardCharsets.UTF_8).equals(key)) {
+                return offset;
+            }
+        }
+        throw new AssertionError("No record for " + key);
+    }
+
+    private static int freeOffset(MappedByteBuffer records) {
+        for (int offset = 0; offset < CAPACITY * RECORD_BYTES; offset += RECORD_BYTES) {
+            if (records.getInt(offset + SEQUENCE) == 0) {
+                return offset;
+            }
+        }
+        throw new AssertionError("No free record");
+    }
+}
@@ -1,12 +1,24 @@
 package com;
 
+import com.ui.LatencyAwareLoadBalancerConfiguration;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @SpringBootApplication
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 public class FastpassUiApplication {
 
     public static void main(String[] args) {
@@ -19,5 +31,49 @@ public class FastpassUiApplication {
         return WebClient.builder();
     }
 
+    /**
+     * Connection pool for fastpass-service, shared by every page request. Named after the
+     * service so its reactor.netty.connection.provider.* gauges (active, idle, pending
+     * connections) are reported per downstream.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider fastPassServiceConnections(
+            @Value("${downstream.fastpass-service.max-connections:200}") int maxConnections,
+            @Value("${downstream.fastpass-service.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${downstream.fastpass-service.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("fastpass-service")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .maxIdleTime(maxIdleTime)
+            .maxLifeTime(Duration.ofMinutes(5))
+            .evictInBackground(Duration.ofSeconds(30))
+            .metrics(true)
+            .build();
+    }
+
+    /**
+     * The client page requests use to call fastpass-service: built once, load balanced, keeping
+     * connections alive in the pool above and negotiating HTTP/2 (h2c) where the instance
+     * supports it. Responses come back in the {@code accept} encoding, e.g. CBOR to
+     * save serialization work on both ends.
+     */
+    @Bean
+    public WebClient fastPassServiceWebClient(WebClient.Builder loadBalancedWebClientBuilder,
+            ConnectionProvider fastPassServiceConnections,
+            @Value("${downstream.fastpass-service.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${downstream.fastpass-service.response-timeout:3s}") Duration responseTimeout,
+            @Value("${downstream.fastpass-service.accept:application/json}") String accept) {
+        HttpClient httpClient = HttpClient.create(fastPassServiceConnections)
+            .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .responseTimeout(responseTimeout)
+            .metrics(true, uri -> uri.replaceFirst("\\?.*", ""));
+        return loadBalancedWebClientBuilder.clone()
+            .baseUrl("http://fastpass-service")
+            .defaultHeader(HttpHeaders.ACCEPT, accept)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
 
 }
@@ -2,33 +2,35 @@ package com.ui;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
 @Controller
 @RequiredArgsConstructor
 public class FastPassController {
 
-    private final WebClient.Builder webClientBuilder;
+    private final FastPassLookupBatcher fastPassLookupBatcher;
 
 
     @RequestMapping(path="/customerdetails")
-	public String getFastPassCustomerDetails(@RequestParam(defaultValue = "800") String fastpassid, Model m) {
-
-        WebClient client = this.webClientBuilder.build();
-
-        FastPassCustomer customer = client.get()
-            .uri("http://fastpass-service/fastpass?fastPassId=" + fastpassid)
-            .retrieve()
-            .bodyToMono(FastPassCustomer.class)
-            .block();
-		
-		System.out.println("fastpassid: " + fastpassid);
-		m.addAttribute("customer", customer);
-		return "console";
+	public Mono<String> getFastPassCustomerDetails(@RequestParam(defaultValue = "800") String fastpassid, Model m) {
+
+        System.out.println("fastpassid: " + fastpassid);
+
+        // Returned as a Mono rather than blocked on, so the servlet thread goes back to the
+        // pool while fastpass-service answers and the page is rendered on completion. The
+        // lookup is coalesced and batched with other page views by the batcher.
+        return fastPassLookupBatcher.find(fastpassid)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown fastpass id: " + fastpassid)))
+            .map(customer -> {
+                m.addAttribute("customer", customer);
+                return "console";
+            });
 
     }
     
@@ -0,0 +1,168 @@
+package com.ui;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns individual FastPass lookups into fewer, larger calls to fastpass-service.
+ *
+ * A lookup for an id that is already in flight waits for that call instead of making its
+ * own. Lookups for different ids are collected for up to {@code batch-window}, or until
+ * {@code max-batch-size} ids are waiting, and then sent together as one
+ * {@code POST /fastpass/lookup}. The window caps the extra latency a lookup can pay. Under
+ * light load a lookup waits at most one window; under peak load batches fill up and are
+ * sent straight away.
+ */
+@Component
+public class FastPassLookupBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastPassLookupBatcher.class);
+    private static final ParameterizedTypeReference<List<FastPassCustomer>> CUSTOMER_LIST =
+            new ParameterizedTypeReference<>() { };
+
+    private final WebClient fastPassServiceWebClient;
+    private final HedgedRequests hedgedRequests;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+
+    private final Map<String, CompletableFuture<FastPassCustomer>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<FastPassCustomer>> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fastpass-lookup-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter batched;
+    private final Counter coalesced;
+    private final DistributionSummary batchSizes;
+
+    public FastPassLookupBatcher(WebClient fastPassServiceWebClient,
+                                 HedgedRequests hedgedRequests,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${fastpass.lookup.batch-window:5ms}") Duration batchWindow,
+                                 @Value("${fastpass.lookup.max-batch-size:100}") int maxBatchSize) {
+        this.fastPassServiceWebClient = fastPassServiceWebClient;
+        this.hedgedRequests = hedgedRequests;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batched = lookups(meterRegistry, "batched");
+        this.coalesced = lookups(meterRegistry, "coalesced");
+        this.batchSizes = DistributionSummary.builder("fastpass.lookup.batch.size")
+                .description("Ids per call to fastpass-service")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the customer, or an empty Mono if fastpass-service has no account for the id.
+     */
+    public Mono<FastPassCustomer> find(String fastPassId) {
+        // fastpass-service matches ids case-insensitively, so coalesce on the same key.
+        String key = fastPassId.toLowerCase(Locale.ROOT);
+        CompletableFuture<FastPassCustomer> created = new CompletableFuture<>();
+        CompletableFuture<FastPassCustomer> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            coalesced.increment();
+            return Mono.fromFuture(running, true);
+        }
+        batched.increment();
+
+        Map<String, CompletableFuture<FastPassCustomer>> full = null;
+        synchronized (lock) {
+            pending.put(key, created);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            } else if (pending.size() == 1) {
+                flusher.schedule(this::flushPending, batchWindowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return Mono.fromFuture(created, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private void flushPending() {
+        Map<String, CompletableFuture<FastPassCustomer>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                // Already sent because it filled up before the window closed.
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        send(batch);
+    }
+
+    private void send(Map<String, CompletableFuture<FastPassCustomer>> batch) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+        batchSizes.record(ids.size());
+        // The lookup only reads, so a slow batch can safely be hedged to another instance.
+        hedgedRequests.hedge("fastpass-lookup", hedgeGroup -> fastPassServiceWebClient.post()
+                        .uri("/fastpass/lookup")
+                        .attribute(HedgeGroup.ATTRIBUTE, hedgeGroup)
+                        .bodyValue(ids)
+                        .retrieve()
+                        .bodyToMono(CUSTOMER_LIST))
+                .subscribe(customers -> {
+                    for (int i = 0; i < ids.size(); i++) {
+                        complete(ids.get(i), batch.get(ids.get(i)), i < customers.size() ? customers.get(i) : null);
+                    }
+                }, error -> {
+                    logger.warn("Batched lookup of {} fastpass ids failed: {}", ids.size(), error.getMessage());
+                    fail(batch, error);
+                }, () -> {
+                    // Also runs after a normal answer, when every future is already done. Left
+                    // pending, lookups would wait forever and their ids could never be fetched again.
+                    fail(batch, new IllegalStateException("fastpass-service answered the lookup without a body"));
+                });
+    }
+
+    private void fail(Map<String, CompletableFuture<FastPassCustomer>> batch, Throwable error) {
+        batch.forEach((id, future) -> {
+            inFlight.remove(id, future);
+            future.completeExceptionally(error);
+        });
+    }
+
+    private void complete(String id, CompletableFuture<FastPassCustomer> future, FastPassCustomer customer) {
+        inFlight.remove(id, future);
+        future.complete(customer);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fastpass.lookup.requests")
+                .description("FastPass lookups by whether they joined a batch or an in-flight call")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.service;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Puts the request id ({@code X-Request-Id}, or a fresh one) and the kind of thread serving
+ * the request into the logging MDC, and echoes the id back on the response.
+ *
+ * The MDC is thread-local. The entries are removed when the request ends, so a pooled
+ * platform thread never carries one request's id into the next, and a virtual thread is
+ * not kept alive by it. Work handed to other threads picks the context up through
+ * {@link MdcTaskDecorator}.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestContextFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put("requestId", requestId);
+        MDC.put("thread", Thread.currentThread().isVirtual() ? "virtual" : "platform");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove("requestId");
+            MDC.remove("thread");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Async dispatches (streamed bodies, SSE) log under the same request id.
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package com.service;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Request-context logging and virtual-thread diagnostics shared by the backend services.
+ * Registered as an auto-configuration, so each service picks these beans up from the
+ * classpath without having to scan this package.
+ */
+@AutoConfiguration
+@Import({MdcTaskDecorator.class, RequestContextFilter.class, VirtualThreadPinningMonitor.class})
+public class ServiceCommonAutoConfiguration { }
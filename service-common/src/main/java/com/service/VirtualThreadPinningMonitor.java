@@ -0,0 +1,83 @@
+package com.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, for example while
+ * blocking inside a {@code synchronized} block or a native frame. A pinned thread holds a
+ * carrier for the whole blocking call, so a few hot spots can cap throughput at the carrier
+ * count, just like a platform-thread pool.
+ *
+ * Listens to the JDK Flight Recorder {@code jdk.VirtualThreadPinned} event for pins longer
+ * than {@code threshold}. Every pin is counted. Each distinct pinning stack is logged once,
+ * with its top frames, so the log points at the code to fix without flooding.
+ * Only active when virtual threads are enabled.
+ */
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private final Duration threshold;
+    private final LongAdder pinned = new LongAdder();
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(@Value("${threads.virtual.pinning-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {}", threshold);
+    }
+
+    public long pinnedCount() {
+        return pinned.sum();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        String stack = frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n\tat "));
+        if (reportedStacks.add(stack)) {
+            logger.warn("Virtual thread pinned for {} ms (pins so far: {}):\n\tat {}",
+                    event.getDuration().toMillis(), pinned.sum(), stack);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.concurrency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One cart of 5 or 50 single-unit lines, reserved with {@link BatchReservationService}
+ * versus one transaction per unit, as N calls to the single-unit endpoint would.
+ *
+ * This runs against in-memory H2, so there is no network round trip. Against a real
+ * database, each sequential call also pays a round trip and a commit flush, so the gap
+ * grows.
+ *
+ * Run with {@code ./gradlew :spring-practices:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchReservationBenchmark {
+
+    private static final String DECREMENT_SQL =
+            "update inventory set stock = stock - 1, version = version + 1 where product_code = ? and stock >= 1";
+
+    @Param({"5", "50"})
+    public int lines;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private BatchReservationService batchReservationService;
+    private List<BatchReservationService.Line> cart;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:batch-" + lines + ";DB_CLOSE_DELAY=-1", "sa", "");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        batchReservationService = new BatchReservationService(jdbcTemplate, transactionManager);
+
+        jdbcTemplate.execute("drop table if exists inventory");
+        jdbcTemplate.execute("create table inventory (id bigint auto_increment primary key, "
+                + "product_code varchar(64) not null unique, stock int not null, version bigint not null)");
+        cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            String productCode = "PRODUCT-" + i;
+            // Enough stock that no run sells out.
+            jdbcTemplate.update("insert into inventory (product_code, stock, version) values (?, ?, 0)",
+                    productCode, Integer.MAX_VALUE);
+            cart.add(new BatchReservationService.Line(productCode, 1));
+        }
+    }
+
+    @Benchmark
+    public List<BatchReservationService.LineOutcome> batchInOneTransaction() {
+        return batchReservationService.reserve(cart);
+    }
+
+    @Benchmark
+    public int sequentialSingleUnitCalls() {
+        int reserved = 0;
+        for (BatchReservationService.Line line : cart) {
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(DECREMENT_SQL, line.productCode()));
+            reserved += updated == null ? 0 : updated;
+        }
+        return reserved;
+    }
+}
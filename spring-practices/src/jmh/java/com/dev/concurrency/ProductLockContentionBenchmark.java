@@ -0,0 +1,118 @@
+package com.dev.concurrency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contention between 16 threads reserving across 1, 16 or 10k distinct product codes,
+ * with a single monitor, a single {@link ReentrantLock} and {@link StripedLocks}.
+ * The critical section stands in for the read-check-write of one reservation.
+ *
+ * With one product every mode is serialized. As products grow, only the striped lock
+ * should scale with the thread count.
+ *
+ * Run with {@code ./gradlew :spring-practices:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class ProductLockContentionBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final int WORK_TOKENS = 200;
+
+    @Param({"1", "16", "10000"})
+    public int products;
+
+    private final Object monitor = new Object();
+    private final ReentrantLock globalLock = new ReentrantLock();
+    private final StripedLocks stripedLocks = new StripedLocks(256);
+    private String[] productCodes;
+    private int[] stock;
+
+    @Setup
+    public void setUp() {
+        productCodes = new String[products];
+        stock = new int[products];
+        for (int i = 0; i < products; i++) {
+            productCodes[i] = "PRODUCT-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Probes {
+
+        private static final AtomicInteger SEEDS = new AtomicInteger();
+
+        private final int[] indexes = new int[PROBES];
+        private int next;
+
+        @Setup
+        public void setUp(ProductLockContentionBenchmark benchmark) {
+            Random random = new Random(SEEDS.incrementAndGet());
+            for (int i = 0; i < PROBES; i++) {
+                indexes[i] = random.nextInt(benchmark.products);
+            }
+        }
+
+        int next() {
+            return indexes[next++ & (PROBES - 1)];
+        }
+    }
+
+    @Benchmark
+    public void synchronizedMonitor(Probes probes) {
+        int product = probes.next();
+        synchronized (monitor) {
+            reserve(product);
+        }
+    }
+
+    @Benchmark
+    public void globalReentrantLock(Probes probes) {
+        int product = probes.next();
+        globalLock.lock();
+        try {
+            reserve(product);
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    @Benchmark
+    public void stripedLock(Probes probes) {
+        int product = probes.next();
+        ReentrantLock lock = stripedLocks.lockFor(productCodes[product]);
+        lock.lock();
+        try {
+            reserve(product);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserve(int product) {
+        Blackhole.consumeCPU(WORK_TOKENS);
+        stock[product]--;
+    }
+}
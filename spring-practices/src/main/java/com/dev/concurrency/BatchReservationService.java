@@ -0,0 +1,154 @@
+package com.dev.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * BATCH RESERVATION: A whole cart in one transaction and one JDBC batch, instead of one HTTP
+ * call, transaction and round trip per unit.
+ *
+ * Lines for the same product are merged and then sorted by product code. Every checkout
+ * therefore locks rows in the same order, and two overlapping carts cannot deadlock each
+ * other. Each line is the same conditional decrement as the single-statement mode. The
+ * cart is all-or-nothing: if any line cannot be reserved, the whole transaction rolls back
+ * and every line reports why.
+ *
+ * Some drivers (e.g. MySQL with {@code rewriteBatchedStatements}, or Oracle) answer a batch
+ * with {@link Statement#SUCCESS_NO_INFO} instead of row counts, which says nothing about
+ * which lines matched. The first time that happens the cart is rolled back and redone one
+ * statement per line, and later carts skip the batch.
+ */
+@Service
+public class BatchReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchReservationService.class);
+
+    private static final String DECREMENT_SQL =
+            "update inventory set stock = stock - ?, version = version + 1 where product_code = ? and stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile boolean batchReportsRowCounts = true;
+
+    public BatchReservationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record Line(String productCode, int quantity) {}
+
+    public record LineOutcome(String productCode, int quantity, Status status) {}
+
+    public enum Status {
+        RESERVED,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND,
+        /** The line itself was fine, but another line failed and the cart was rolled back. */
+        ROLLED_BACK
+    }
+
+    /**
+     * Returns one outcome per requested line, in request order.
+     */
+    public List<LineOutcome> reserve(List<Line> lines) {
+        Map<String, Integer> merged = new TreeMap<>();
+        for (Line line : lines) {
+            if (line == null || line.productCode() == null || line.productCode().isBlank()) {
+                throw new IllegalArgumentException("Every line needs a product code");
+            }
+            if (line.quantity() < 1) {
+                throw new IllegalArgumentException("Quantity must be positive for " + line.productCode());
+            }
+            try {
+                merged.merge(line.productCode(), line.quantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Total quantity too large for " + line.productCode());
+            }
+        }
+        if (merged.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Status> byProduct = null;
+        if (batchReportsRowCounts) {
+            byProduct = transactionTemplate.execute(status -> decrement(merged, status, true));
+        }
+        if (byProduct == null) {
+            byProduct = transactionTemplate.execute(status -> decrement(merged, status, false));
+        }
+
+        List<LineOutcome> result = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            result.add(new LineOutcome(line.productCode(), line.quantity(), byProduct.get(line.productCode())));
+        }
+        return result;
+    }
+
+    /**
+     * Returns null, with the transaction marked for rollback, if the batch did not report row counts.
+     */
+    private Map<String, Status> decrement(Map<String, Integer> merged, TransactionStatus status, boolean batched) {
+        int[] updated;
+        if (batched) {
+            List<Object[]> batch = new ArrayList<>(merged.size());
+            merged.forEach((productCode, quantity) -> batch.add(new Object[] {quantity, productCode, quantity}));
+            updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, batch);
+            for (int count : updated) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    logger.info("JDBC driver reports no row counts for batches; reserving carts one line at a time");
+                    batchReportsRowCounts = false;
+                    status.setRollbackOnly();
+                    return null;
+                }
+            }
+        } else {
+            updated = new int[merged.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> line : merged.entrySet()) {
+                updated[i++] = jdbcTemplate.update(DECREMENT_SQL, line.getValue(), line.getKey(), line.getValue());
+            }
+        }
+
+        Map<String, Status> outcomes = new TreeMap<>();
+        List<String> rejected = new ArrayList<>();
+        int i = 0;
+        for (String productCode : merged.keySet()) {
+            if (updated[i++] == 1) {
+                outcomes.put(productCode, Status.RESERVED);
+            } else {
+                rejected.add(productCode);
+            }
+        }
+        if (rejected.isEmpty()) {
+            return outcomes;
+        }
+
+        status.setRollbackOnly();
+        Set<String> known = existing(rejected);
+        outcomes.replaceAll((productCode, reserved) -> Status.ROLLED_BACK);
+        rejected.forEach(productCode -> outcomes.put(productCode,
+                known.contains(productCode) ? Status.INSUFFICIENT_STOCK : Status.NOT_FOUND));
+        return outcomes;
+    }
+
+    private Set<String> existing(List<String> productCodes) {
+        String placeholders = String.join(",", Collections.nCopies(productCodes.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select product_code from inventory where product_code in (" + placeholders + ")",
+                String.class, productCodes.toArray()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.dev.concurrency;
+
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DECORRELATED JITTER: Each delay is random between the base delay and three times the
+ * previous delay, capped at {@code maxDelay}. Callers that conflicted at the same moment
+ * spread out instead of colliding again in lock-step, as they would with plain
+ * exponential backoff.
+ */
+public class DecorrelatedJitterBackOff implements BackOff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+    private final int maxRetries;
+
+    public DecorrelatedJitterBackOff(Duration baseDelay, Duration maxDelay, int maxRetries) {
+        this.baseMillis = Math.max(1, baseDelay.toMillis());
+        this.maxMillis = Math.max(baseMillis, maxDelay.toMillis());
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public BackOffExecution start() {
+        return new BackOffExecution() {
+            private long previous = baseMillis;
+            private int retries;
+
+            @Override
+            public long nextBackOff() {
+                if (retries++ >= maxRetries) {
+                    return STOP;
+                }
+                long upper = Math.min(maxMillis, previous * 3);
+                previous = upper <= baseMillis ? baseMillis : ThreadLocalRandom.current().nextLong(baseMillis, upper + 1);
+                return previous;
+            }
+        };
+    }
+}
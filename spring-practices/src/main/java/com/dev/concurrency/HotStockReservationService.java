@@ -0,0 +1,211 @@
+package com.dev.concurrency;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HOT PRODUCTS: Reservations for flash-sale items that the database alone cannot keep up with.
+ *
+ * Each product's stock is held in memory as a {@link ShardedStockCounter}. Once a product
+ * is sold out, further requests are refused without touching the database. A successful
+ * take is queued, and every {@code flush-interval} the queued quantities for each product
+ * are written to {@code Inventory} as one conditional decrement. A reservation is only
+ * confirmed once that write commits.
+ *
+ * That confirmation rule is what makes a crash safe. Whatever was only in memory was never
+ * confirmed to a caller, and {@code Inventory} holds exactly the confirmed reservations. On
+ * startup the counters are rebuilt from {@code Inventory} (eagerly for {@code preload}
+ * products, lazily for the rest), so nothing needs replaying. If the table holds less than
+ * the counter expected, because another path reserved the same product, the batch falls
+ * back to one decrement per reservation and the counter is reset from the database.
+ *
+ * A sold-out counter is re-read from {@code Inventory} at most once per
+ * {@code restock-check-interval}, and only after a refusal, so a restock is picked up
+ * without a database read per refused request. Flushes and re-reads run on one dedicated
+ * thread, so they never overlap for a product.
+ */
+@Service
+public class HotStockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockReservationService.class);
+
+    private final InventoryRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int shards;
+    private final List<String> preload;
+    private final Duration flushInterval;
+    private final long restockCheckNanos;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hot-stock-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, HotProduct> products = new ConcurrentHashMap<>();
+
+    public HotStockReservationService(InventoryRepository repository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${inventory.hot.shards:16}") int shards,
+                                      @Value("${inventory.hot.preload:}") List<String> preload,
+                                      @Value("${inventory.hot.flush-interval:50ms}") Duration flushInterval,
+                                      @Value("${inventory.hot.restock-check-interval:1s}") Duration restockCheckInterval) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.preload = preload;
+        this.flushInterval = flushInterval;
+        this.restockCheckNanos = restockCheckInterval.toNanos();
+    }
+
+    /**
+     * Completes with true once the reservation is committed, or false if the product is sold out.
+     */
+    public CompletableFuture<Boolean> reserve(String productCode, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        HotProduct product = products.computeIfAbsent(productCode, this::load);
+        if (!product.stock.tryTake(quantity)) {
+            product.refused = true;
+            return CompletableFuture.completedFuture(false);
+        }
+        PendingReservation reservation = new PendingReservation(quantity, new CompletableFuture<>());
+        product.pending.add(reservation);
+        return reservation.confirmed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        long interval = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.NANOSECONDS);
+        for (String productCode : preload) {
+            HotProduct product = products.computeIfAbsent(productCode, this::load);
+            logger.info("Hot stock for {} loaded from Inventory: {}", productCode, product.stock.available());
+        }
+    }
+
+    public void flush() {
+        products.forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() throws InterruptedException {
+        flusher.shutdown();
+        if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Hot stock flush still running at shutdown");
+        }
+        flush();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule and leave every reservation unconfirmed.
+            logger.error("Hot stock flush failed: {}", e.getMessage());
+        }
+    }
+
+    private HotProduct load(String productCode) {
+        Inventory inventory = repository.findByProductCode(productCode)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return new HotProduct(new ShardedStockCounter(shards, inventory.getStock()));
+    }
+
+    private void flush(String productCode, HotProduct product) {
+        writePending(productCode, product);
+        checkRestock(productCode, product);
+    }
+
+    private void writePending(String productCode, HotProduct product) {
+        List<PendingReservation> batch = new ArrayList<>();
+        PendingReservation next;
+        while ((next = product.pending.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int total = batch.stream().mapToInt(PendingReservation::quantity).sum();
+
+        try {
+            Boolean written = transactionTemplate.execute(status ->
+                    repository.decrementStockIfAvailable(productCode, total) == 1);
+            if (Boolean.TRUE.equals(written)) {
+                batch.forEach(reservation -> reservation.confirmed.complete(true));
+                return;
+            }
+            logger.warn("Inventory for {} holds less than the {} units queued; confirming one by one", productCode, total);
+            for (PendingReservation reservation : batch) {
+                Boolean reserved = transactionTemplate.execute(status ->
+                        repository.decrementStockIfAvailable(productCode, reservation.quantity()) == 1);
+                reservation.confirmed.complete(Boolean.TRUE.equals(reserved));
+            }
+            resync(productCode, product);
+        } catch (RuntimeException e) {
+            // The unconfirmed reservations were not written, so hand their units back.
+            int unwritten = batch.stream()
+                    .filter(reservation -> !reservation.confirmed.isDone())
+                    .mapToInt(PendingReservation::quantity)
+                    .sum();
+            logger.error("Could not write {} reserved units for {}: {}", unwritten, productCode, e.getMessage());
+            product.stock.add(unwritten);
+            batch.forEach(reservation -> reservation.confirmed.completeExceptionally(e));
+        }
+    }
+
+    private void checkRestock(String productCode, HotProduct product) {
+        long now = System.nanoTime();
+        if (!product.refused || now - product.lastResync < restockCheckNanos) {
+            return;
+        }
+        product.refused = false;
+        try {
+            resync(productCode, product);
+        } catch (RuntimeException e) {
+            logger.warn("Could not re-read Inventory for {}: {}", productCode, e.getMessage());
+        }
+    }
+
+    private void resync(String productCode, HotProduct product) {
+        product.lastResync = System.nanoTime();
+        int stillQueued = product.pending.stream().mapToInt(PendingReservation::quantity).sum();
+        repository.findByProductCode(productCode).ifPresent(inventory ->
+                product.stock.reset(Math.max(0, inventory.getStock() - stillQueued)));
+    }
+
+    private static final class HotProduct {
+
+        private final ShardedStockCounter stock;
+        private final Queue<PendingReservation> pending = new ConcurrentLinkedQueue<>();
+        // Set when a request was refused, cleared when the flush thread re-reads Inventory.
+        private volatile boolean refused;
+        // Only touched by the flush thread.
+        private long lastResync = System.nanoTime();
+
+        private HotProduct(ShardedStockCounter stock) {
+            this.stock = stock;
+        }
+    }
+
+    private record PendingReservation(int quantity, CompletableFuture<Boolean> confirmed) {
+    }
+}
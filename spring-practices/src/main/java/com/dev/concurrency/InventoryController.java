@@ -1,6 +1,10 @@
 package com.dev.concurrency;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -8,9 +12,18 @@ import java.util.concurrent.CompletableFuture;
 public class InventoryController {
 
     private final ReservationInventoryService inventoryService;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final HotStockReservationService hotStockService;
+    private final BatchReservationService batchReservationService;
 
-    public InventoryController(ReservationInventoryService inventoryService) {
+    public InventoryController(ReservationInventoryService inventoryService,
+                               OptimisticRetryExecutor optimisticRetry,
+                               HotStockReservationService hotStockService,
+                               BatchReservationService batchReservationService) {
         this.inventoryService = inventoryService;
+        this.optimisticRetry = optimisticRetry;
+        this.hotStockService = hotStockService;
+        this.batchReservationService = batchReservationService;
     }
 
     @PostMapping("/reserve/unsafe/{code}")
@@ -28,16 +41,52 @@ public class InventoryController {
         inventoryService.reserveWithLock(code);
     }
 
+    @PostMapping("/reserve/striped/{code}")
+    public void reserveStriped(@PathVariable String code) {
+        inventoryService.reserveStriped(code);
+    }
+
+    @PostMapping("/reserve/conditional/{code}")
+    public boolean reserveConditional(@PathVariable String code,
+                                      @RequestParam(defaultValue = "1") int quantity) {
+        return inventoryService.reserveConditional(code, quantity);
+    }
+
     @PostMapping("/reserve/optimistic/{code}")
     public void reserveOptimistic(@PathVariable String code) {
         inventoryService.reserveOptimistic(code);
     }
 
+    @PostMapping("/reserve/optimistic-retry/{code}")
+    public void reserveOptimisticWithRetry(@PathVariable String code) {
+        inventoryService.reserveOptimisticWithRetry(code);
+    }
+
+    @GetMapping("/conflicts")
+    public Map<String, OptimisticRetryExecutor.ConflictSnapshot> conflicts() {
+        return optimisticRetry.conflictStats();
+    }
+
     @PostMapping("/reserve/atomic")
     public int reserveAtomic() {
         return inventoryService.reserveAtomic();
     }
 
+    @PostMapping("/reserve/hot/{code}")
+    public CompletableFuture<Boolean> reserveHot(@PathVariable String code,
+                                                 @RequestParam(defaultValue = "1") int quantity) {
+        return hotStockService.reserve(code, quantity);
+    }
+
+    @PostMapping("/reserve/batch")
+    public ResponseEntity<List<BatchReservationService.LineOutcome>> reserveBatch(
+            @RequestBody List<BatchReservationService.Line> lines) {
+        List<BatchReservationService.LineOutcome> outcomes = batchReservationService.reserve(lines);
+        boolean reserved = outcomes.stream()
+                .allMatch(outcome -> outcome.status() == BatchReservationService.Status.RESERVED);
+        return ResponseEntity.status(reserved ? HttpStatus.OK : HttpStatus.CONFLICT).body(outcomes);
+    }
+
     @PostMapping("/reserve/async/{code}")
     public CompletableFuture<String> reserveAsync(@PathVariable String code) {
         return inventoryService.processReservationAsync(code);
@@ -1,6 +1,11 @@
 package com.dev.concurrency;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -8,4 +13,20 @@ import java.util.Optional;
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByProductCode(String productCode);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.productCode = :productCode")
+    Optional<Inventory> findByProductCodeForUpdate(@Param("productCode") String productCode);
+
+    boolean existsByProductCode(String productCode);
+
+    /**
+     * Takes {@code quantity} units in one statement, only if that many are left.
+     * Returns the number of rows updated: 1 if reserved, 0 if short of stock or unknown.
+     * The version is bumped as well so concurrent optimistic readers still see a conflict.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Inventory i set i.stock = i.stock - :quantity, i.version = i.version + 1 "
+            + "where i.productCode = :productCode and i.stock >= :quantity")
+    int decrementStockIfAvailable(@Param("productCode") String productCode, @Param("quantity") int quantity);
 }
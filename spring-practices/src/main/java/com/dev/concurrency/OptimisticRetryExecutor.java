@@ -0,0 +1,141 @@
+package com.dev.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries work on {@code @Version} entities when an optimistic-lock conflict occurs.
+ *
+ * Every attempt runs in its own transaction, so this must be called outside one. Attempts
+ * are bounded and spaced with {@link DecorrelatedJitterBackOff}. Conflicts are tracked per
+ * entity name (e.g. "Inventory", "Stock"). While an entity's conflict rate is at or above
+ * {@code fallback-threshold}, calls go straight to the pessimistic variant: a locked read
+ * queues the writers instead of letting most of them fail and retry. Every
+ * {@value #PROBE_INTERVAL}th call still tries the optimistic path, so the rate can drop
+ * and optimistic mode resume once contention eases.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+    private static final double RATE_WEIGHT = 0.1;
+    private static final int PROBE_INTERVAL = 16;
+
+    private final TransactionTemplate transactionTemplate;
+    private final BackOff backOff;
+    private final double fallbackThreshold;
+    private final Map<String, ConflictStats> stats = new ConcurrentHashMap<>();
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   @Value("${inventory.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${inventory.optimistic-retry.base-delay:5ms}") Duration baseDelay,
+                                   @Value("${inventory.optimistic-retry.max-delay:200ms}") Duration maxDelay,
+                                   @Value("${inventory.optimistic-retry.fallback-threshold:0.5}") double fallbackThreshold) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fallbackThreshold = fallbackThreshold;
+        this.backOff = new DecorrelatedJitterBackOff(baseDelay, maxDelay, maxAttempts - 1);
+    }
+
+    public void run(String entity, Runnable optimistic, Runnable pessimistic) {
+        execute(entity, () -> {
+            optimistic.run();
+            return null;
+        }, () -> {
+            pessimistic.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(String entity, Supplier<T> optimistic, Supplier<T> pessimistic) {
+        ConflictStats entityStats = stats.computeIfAbsent(entity, ConflictStats::new);
+        if (entityStats.usePessimistic(fallbackThreshold)) {
+            entityStats.pessimisticCalls.increment();
+            return transactionTemplate.execute(status -> pessimistic.get());
+        }
+        BackOffExecution backOffExecution = backOff.start();
+        while (true) {
+            entityStats.attempts.increment();
+            try {
+                T result = transactionTemplate.execute(status -> optimistic.get());
+                entityStats.record(false);
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                entityStats.conflicts.increment();
+                entityStats.record(true);
+                long delay = backOffExecution.nextBackOff();
+                if (delay == BackOffExecution.STOP) {
+                    entityStats.exhausted.increment();
+                    // The original failure, so a conflict still maps to 409 Conflict.
+                    throw e;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public Map<String, ConflictSnapshot> conflictStats() {
+        Map<String, ConflictSnapshot> snapshot = new TreeMap<>();
+        stats.forEach((entity, entityStats) -> snapshot.put(entity, entityStats.snapshot()));
+        return snapshot;
+    }
+
+    public record ConflictSnapshot(long attempts, long conflicts, long exhausted, long pessimisticCalls,
+                                   double conflictRate, boolean pessimisticFallback) {
+    }
+
+    private static final class ConflictStats {
+
+        private final String entity;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder pessimisticCalls = new LongAdder();
+
+        // Guarded by this.
+        private double conflictRate;
+        private boolean fallback;
+        private long callsSinceProbe;
+
+        private ConflictStats(String entity) {
+            this.entity = entity;
+        }
+
+        synchronized void record(boolean conflict) {
+            conflictRate += RATE_WEIGHT * ((conflict ? 1 : 0) - conflictRate);
+        }
+
+        synchronized boolean usePessimistic(double threshold) {
+            boolean active = conflictRate >= threshold;
+            if (active != fallback) {
+                fallback = active;
+                logger.info("{} conflict rate {}; switching to {} locking", entity,
+                        String.format("%.2f", conflictRate), active ? "pessimistic" : "optimistic");
+            }
+            return active && ++callsSinceProbe % PROBE_INTERVAL != 0;
+        }
+
+        synchronized ConflictSnapshot snapshot() {
+            return new ConflictSnapshot(attempts.sum(), conflicts.sum(), exhausted.sum(), pessimisticCalls.sum(),
+                    conflictRate, fallback);
+        }
+    }
+}
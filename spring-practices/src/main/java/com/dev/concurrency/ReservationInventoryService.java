@@ -1,7 +1,10 @@
 package com.dev.concurrency;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.scheduling.annotation.Async;
 
 import java.util.concurrent.CompletableFuture;
@@ -14,9 +17,18 @@ public class ReservationInventoryService {
     private final InventoryRepository repository;
     private final ReentrantLock lock = new ReentrantLock();
     private final AtomicInteger inMemoryStock = new AtomicInteger(100);
+    private final StripedLocks productLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetryExecutor optimisticRetry;
 
-    public ReservationInventoryService(InventoryRepository repository) {
+    public ReservationInventoryService(InventoryRepository repository,
+                                       PlatformTransactionManager transactionManager,
+                                       OptimisticRetryExecutor optimisticRetry,
+                                       @Value("${inventory.lock-stripes:256}") int lockStripes) {
         this.repository = repository;
+        this.optimisticRetry = optimisticRetry;
+        this.productLocks = new StripedLocks(lockStripes);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -59,6 +71,43 @@ public class ReservationInventoryService {
         }
     }
 
+    /**
+     * STRIPED LOCK: One lock per stripe of product codes instead of one for the whole JVM.
+     * Reservations for different products run in parallel; the same product is still serialized.
+     * The transaction runs inside the lock so the update is committed before the next
+     * reservation for that product can read the stock.
+     */
+    public void reserveStriped(String productCode) {
+        ReentrantLock productLock = productLocks.lockFor(productCode);
+        productLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> reserveUnsafe(productCode));
+        } finally {
+            productLock.unlock();
+        }
+    }
+
+    /**
+     * CONDITIONAL UPDATE: The check and the decrement happen in a single UPDATE statement,
+     * so the database row lock serializes concurrent callers without any read first.
+     * No entity is loaded, so there is no dirty checking and no version conflict to retry.
+     * Returns false when there is not enough stock left.
+     */
+    @Transactional
+    public boolean reserveConditional(String productCode, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (repository.decrementStockIfAvailable(productCode, quantity) == 1) {
+            return true;
+        }
+        // Only the rejected path pays for a second query, to tell "sold out" from "unknown".
+        if (!repository.existsByProductCode(productCode)) {
+            throw new RuntimeException("Product not found");
+        }
+        return false;
+    }
+
     /**
      * ATOMIC VARIABLES: Extremely efficient for simple counter updates.
      * Uses CAS (Compare-And-Swap) at the CPU level.
@@ -83,6 +132,27 @@ public class ReservationInventoryService {
         }
     }
 
+    /**
+     * OPTIMISTIC WITH RETRY: Same as reserveOptimistic, but a version conflict is retried
+     * with jittered backoff instead of failing the caller. When conflicts on Inventory become
+     * the norm, the executor switches to a SELECT ... FOR UPDATE read until they ease.
+     */
+    public void reserveOptimisticWithRetry(String productCode) {
+        optimisticRetry.run("Inventory",
+                () -> reserveOptimistic(productCode),
+                () -> reservePessimistic(productCode));
+    }
+
+    private void reservePessimistic(String productCode) {
+        Inventory inventory = repository.findByProductCodeForUpdate(productCode)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        if (inventory.getStock() > 0) {
+            inventory.setStock(inventory.getStock() - 1);
+            repository.saveAndFlush(inventory);
+        }
+    }
+
     /**
      * ASYNC: Demonstrates background processing using CompletableFuture.
      */
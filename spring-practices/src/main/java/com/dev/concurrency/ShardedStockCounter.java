@@ -0,0 +1,134 @@
+package com.dev.concurrency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SHARDED COUNTER: One product's stock split across several atomic cells, so threads
+ * decrementing it CAS on different cache lines instead of all fighting over one.
+ *
+ * A thread takes from its home shard. When that runs short it borrows from a sibling,
+ * moving half of the sibling's stock home so later takes are local again. Only when no
+ * single shard can cover the request are several drained together, and that is undone
+ * if they cannot cover it between them. During that short window other threads may see
+ * empty shards, so a request can be turned away while a few units are still left.
+ */
+public class ShardedStockCounter {
+
+    // Live cells are 16 longs (128 bytes) apart, and away from the array header: one cache
+    // line plus the adjacent line that the hardware prefetcher pulls in with it.
+    private static final int PAD = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public ShardedStockCounter(int minimumShards, long stock) {
+        int shards = Math.max(1, Integer.highestOneBit(Math.max(1, minimumShards) - 1) << 1);
+        this.cells = new AtomicLongArray((shards + 1) * PAD);
+        this.mask = shards - 1;
+        distribute(stock);
+    }
+
+    public boolean tryTake(long quantity) {
+        int home = homeShard();
+        return takeFrom(home, quantity) || borrow(home, quantity);
+    }
+
+    /**
+     * Puts units back, e.g. when a reservation could not be made durable.
+     */
+    public void add(long quantity) {
+        cells.addAndGet(cell(homeShard()), quantity);
+    }
+
+    /**
+     * A moment-in-time sum; concurrent takes may already have changed it.
+     */
+    public long available() {
+        long sum = 0;
+        for (int shard = 0; shard <= mask; shard++) {
+            sum += cells.get(cell(shard));
+        }
+        return sum;
+    }
+
+    /**
+     * Replaces the stock, e.g. after the database turned out to hold less than expected.
+     * Takes that run at the same time may fail while the shards are being refilled.
+     */
+    public void reset(long stock) {
+        for (int shard = 0; shard <= mask; shard++) {
+            cells.set(cell(shard), 0);
+        }
+        distribute(stock);
+    }
+
+    private void distribute(long stock) {
+        long perShard = stock / (mask + 1);
+        for (int shard = 0; shard <= mask; shard++) {
+            cells.addAndGet(cell(shard), perShard + (shard < stock % (mask + 1) ? 1 : 0));
+        }
+    }
+
+    private boolean takeFrom(int shard, long quantity) {
+        int cell = cell(shard);
+        long current;
+        while ((current = cells.get(cell)) >= quantity) {
+            if (cells.compareAndSet(cell, current, current - quantity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean borrow(int home, long quantity) {
+        for (int i = 1; i <= mask; i++) {
+            int sibling = cell((home + i) & mask);
+            long current;
+            while ((current = cells.get(sibling)) >= quantity) {
+                long moved = Math.max(quantity, current / 2);
+                if (cells.compareAndSet(sibling, current, current - moved)) {
+                    if (moved > quantity) {
+                        cells.addAndGet(cell(home), moved - quantity);
+                    }
+                    return true;
+                }
+            }
+        }
+        return gather(home, quantity);
+    }
+
+    private boolean gather(int home, long quantity) {
+        long[] taken = new long[mask + 1];
+        long missing = quantity;
+        for (int i = 0; i <= mask && missing > 0; i++) {
+            int shard = (home + i) & mask;
+            long current;
+            while ((current = cells.get(cell(shard))) > 0) {
+                long take = Math.min(current, missing);
+                if (cells.compareAndSet(cell(shard), current, current - take)) {
+                    taken[shard] = take;
+                    missing -= take;
+                    break;
+                }
+            }
+        }
+        if (missing == 0) {
+            return true;
+        }
+        for (int shard = 0; shard <= mask; shard++) {
+            if (taken[shard] > 0) {
+                cells.addAndGet(cell(shard), taken[shard]);
+            }
+        }
+        return false;
+    }
+
+    private int homeShard() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int cell(int shard) {
+        return (shard + 1) * PAD;
+    }
+}
@@ -0,0 +1,45 @@
+package com.dev.concurrency;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LOCK STRIPING: A fixed array of locks, with each key hashed to one of them.
+ * Keys on different stripes never wait for each other; keys that share a stripe are
+ * serialized, exactly as if they had their own lock. Memory stays bounded no matter
+ * how many distinct keys are seen, unlike a lock-per-key map that has to be cleaned up.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLocks(int minimumStripes) {
+        if (minimumStripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is required");
+        }
+        // Round up to a power of two so the stripe index is a mask instead of a modulo.
+        int size = Integer.highestOneBit(minimumStripes - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(1, size)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes.length - 1;
+    }
+
+    public ReentrantLock lockFor(Object key) {
+        return stripes[indexFor(key)];
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int indexFor(Object key) {
+        // Spread the high bits down; String hash codes of similar codes differ mostly in the low bits.
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        hash *= 0x45d9f3b;
+        hash ^= (hash >>> 16);
+        return hash & mask;
+    }
+}
@@ -1,6 +1,8 @@
 package com.dev.concurrency.application.service;
 
+import com.dev.concurrency.OptimisticRetryExecutor;
 import com.dev.concurrency.domain.model.Order;
+import com.dev.concurrency.domain.model.OrderItem;
 import com.dev.concurrency.domain.model.Stock;
 import com.dev.concurrency.domain.repository.OrderRepository;
 import com.dev.concurrency.domain.repository.StockRepository;
@@ -9,9 +11,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -19,34 +22,27 @@ public class InventorySagaService {
 
     private final StockRepository stockRepository;
     private final OrderRepository orderRepository;
+    private final OptimisticRetryExecutor optimisticRetry;
 
     /**
      * Saga Choreography - Step 2: Inventory Reservation
-     * Using Propagation.REQUIRES_NEW to ensure stock reservation is attempted 
-     * in a separate transaction from the original order creation, 
-     * but also making it @Async to not block the main request thread.
+     * Runs in its own transaction, separate from the original order creation,
+     * and @Async so it does not block the main request thread.
+     * Stock is protected by its @Version: a conflict only shows at commit, so each attempt
+     * commits inside OptimisticRetryExecutor, which retries it and falls back to locked
+     * reads when Stock conflicts become the norm.
      */
     @Async("orderTaskExecutor")
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     @CircuitBreaker(name = "inventoryService", fallbackMethod = "fallbackInventory")
     public void processInventory(Order order) {
         log.info("Processing inventory for order: {}", order.getId());
 
         try {
-            order.getItems().forEach(item -> {
-                Stock stock = stockRepository.findById(item.getProductCode())
-                        .orElseThrow(() -> new RuntimeException("Stock not found for " + item.getProductCode()));
-                
-                // State Protection: Optimistic Locking handled by JPA @Version in Stock entity
-                stock.reserve(item.getQuantity());
-                stockRepository.save(stock);
-            });
-
-            order.markAsValidated();
-            order.markAsCompleted();
-            orderRepository.save(order);
+            optimisticRetry.run("Stock",
+                    () -> reserveStock(order, false),
+                    () -> reserveStock(order, true));
             log.info("Inventory reserved and order completed: {}", order.getId());
-            
+
             // In a real system, we would trigger the next step (Payment) here via Outbox/Messaging
         } catch (Exception e) {
             log.error("Failed to reserve inventory for order: {}. Reason: {}", order.getId(), e.getMessage());
@@ -54,6 +50,24 @@ public class InventorySagaService {
         }
     }
 
+    private void reserveStock(Order order, boolean locked) {
+        // Lock rows in key order, so two orders sharing products cannot deadlock.
+        order.getItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getProductCode))
+                .forEach(item -> {
+                    Stock stock = (locked
+                            ? stockRepository.findByIdForUpdate(item.getProductCode())
+                            : stockRepository.findById(item.getProductCode()))
+                            .orElseThrow(() -> new RuntimeException("Stock not found for " + item.getProductCode()));
+                    stock.reserve(item.getQuantity());
+                    stockRepository.save(stock);
+                });
+
+        order.markAsValidated();
+        order.markAsCompleted();
+        orderRepository.save(order);
+    }
+
     public void fallbackInventory(Order order, Throwable t) {
         log.error("Inventory Service is unavailable or slow. Circuit Breaker triggered for order: {}", order.getId());
         compensateInventory(order, "Inventory Service Unavailable");
@@ -1,7 +1,17 @@
 package com.dev.concurrency.domain.repository;
 
 import com.dev.concurrency.domain.model.Stock;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface StockRepository extends JpaRepository<Stock, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Stock s where s.productCode = :productCode")
+    Optional<Stock> findByIdForUpdate(@Param("productCode") String productCode);
 }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.Map;
+import java.util.Objects;
 
 @RestControllerAdvice
 @Slf4j
@@ -26,6 +27,17 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", "The resource was updated by another process. Please retry."));
     }
 
+    /**
+     * Rejected input, e.g. a non-positive quantity or a cart line without a product code.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        String message = Objects.requireNonNullElse(e.getMessage(), "Invalid request");
+        log.warn("Bad request: {}", message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", message));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException e) {
         log.error("Unexpected error: {}", e.getMessage(), e);
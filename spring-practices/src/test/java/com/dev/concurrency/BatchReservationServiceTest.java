@@ -0,0 +1,167 @@
+package com.dev.concurrency;
+
+import com.dev.concurrency.BatchReservationService.Line;
+import com.dev.concurrency.BatchReservationService.LineOutcome;
+import com.dev.concurrency.BatchReservationService.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against in-memory H2 with a plain JdbcTemplate, as {@code BatchReservationBenchmark} does.
+ */
+class BatchReservationServiceTest {
+
+    private DriverManagerDataSource dataSource;
+    private RecordingJdbcTemplate jdbcTemplate;
+    private BatchReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:batch-reservation;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new RecordingJdbcTemplate(dataSource, false);
+        service = new BatchReservationService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("drop table if exists inventory");
+        jdbcTemplate.execute("create table inventory (id bigint auto_increment primary key, "
+                + "product_code varchar(64) not null unique, stock int not null, version bigint not null)");
+        insert("KEYBOARD-001", 10);
+        insert("MOUSE-001", 1);
+        insert("SCREEN-001", 5);
+    }
+
+    @Test
+    void reservesEveryLineOfACart() {
+        List<LineOutcome> outcomes = service.reserve(List.of(new Line("SCREEN-001", 2), new Line("MOUSE-001", 1)));
+
+        assertThat(statuses(outcomes)).isEqualTo(List.of(Status.RESERVED, Status.RESERVED));
+        assertThat(stock("SCREEN-001")).isEqualTo(3);
+        assertThat(stock("MOUSE-001")).isEqualTo(0);
+        assertThat(version("SCREEN-001")).isEqualTo(1L);
+    }
+
+    @Test
+    void rollsBackTheWholeCartWhenOneLineFails() {
+        List<LineOutcome> outcomes = service.reserve(List.of(
+                new Line("KEYBOARD-001", 4),
+                new Line("MOUSE-001", 2),
+                new Line("UNKNOWN-001", 1)));
+
+        assertThat(statuses(outcomes)).isEqualTo(List.of(Status.ROLLED_BACK, Status.INSUFFICIENT_STOCK, Status.NOT_FOUND));
+        // The keyboard decrement ran in the same transaction and was undone with the rest.
+        assertThat(stock("KEYBOARD-001")).isEqualTo(10);
+        assertThat(stock("MOUSE-001")).isEqualTo(1);
+        assertThat(version("KEYBOARD-001")).isEqualTo(0L);
+    }
+
+    @Test
+    void mergesLinesPerProductAndUpdatesInKeyOrder() {
+        List<LineOutcome> outcomes = service.reserve(List.of(
+                new Line("SCREEN-001", 1),
+                new Line("KEYBOARD-001", 2),
+                new Line("SCREEN-001", 3)));
+
+        // One outcome per requested line, in request order.
+        assertThat(outcomes).isEqualTo(List.of(
+                new LineOutcome("SCREEN-001", 1, Status.RESERVED),
+                new LineOutcome("KEYBOARD-001", 2, Status.RESERVED),
+                new LineOutcome("SCREEN-001", 3, Status.RESERVED)));
+        assertThat(jdbcTemplate.batchedProductCodes).isEqualTo(List.of("KEYBOARD-001", "SCREEN-001"));
+        assertThat(stock("SCREEN-001")).isEqualTo(1);
+        assertThat(stock("KEYBOARD-001")).isEqualTo(8);
+    }
+
+    @Test
+    void rejectsInvalidLines() {
+        assertThatThrownBy(() -> service.reserve(List.of(new Line(null, 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.reserve(List.of(new Line("SCREEN-001", 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Would merge to a negative quantity, and "stock - negative" would add stock.
+        assertThatThrownBy(() -> service.reserve(List.of(
+                new Line("SCREEN-001", Integer.MAX_VALUE), new Line("SCREEN-001", Integer.MAX_VALUE))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(stock("SCREEN-001")).isEqualTo(5);
+    }
+
+    @Test
+    void fallsBackToOneUpdatePerLineWhenTheDriverReportsNoRowCounts() {
+        jdbcTemplate = new RecordingJdbcTemplate(dataSource, true);
+        service = new BatchReservationService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+
+        List<LineOutcome> reserved = service.reserve(List.of(new Line("SCREEN-001", 2), new Line("KEYBOARD-001", 1)));
+        List<LineOutcome> rejected = service.reserve(List.of(new Line("SCREEN-001", 1), new Line("MOUSE-001", 2)));
+
+        assertThat(statuses(reserved)).isEqualTo(List.of(Status.RESERVED, Status.RESERVED));
+        assertThat(statuses(rejected)).isEqualTo(List.of(Status.ROLLED_BACK, Status.INSUFFICIENT_STOCK));
+        // The batched attempt was rolled back, so every unit is taken exactly once.
+        assertThat(stock("SCREEN-001")).isEqualTo(3);
+        assertThat(stock("KEYBOARD-001")).isEqualTo(9);
+        assertThat(stock("MOUSE-001")).isEqualTo(1);
+        // Only the first cart tried a batch.
+        assertThat(jdbcTemplate.batches).isEqualTo(1);
+    }
+
+    @Test
+    void answersConflictUnlessEveryLineIsReserved() {
+        InventoryController controller = new InventoryController(null, null, null, service);
+
+        assertThat(controller.reserveBatch(List.of(new Line("MOUSE-001", 1))).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(controller.reserveBatch(List.of(new Line("MOUSE-001", 1))).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    private void insert(String productCode, int stock) {
+        jdbcTemplate.update("insert into inventory (product_code, stock, version) values (?, ?, 0)", productCode, stock);
+    }
+
+    private int stock(String productCode) {
+        return jdbcTemplate.queryForObject("select stock from inventory where product_code = ?", Integer.class, productCode);
+    }
+
+    private long version(String productCode) {
+        return jdbcTemplate.queryForObject("select version from inventory where product_code = ?", Long.class, productCode);
+    }
+
+    private static List<Status> statuses(List<LineOutcome> outcomes) {
+        return outcomes.stream().map(LineOutcome::status).toList();
+    }
+
+    /**
+     * Records the product order of each batch, and can answer like a driver that reports
+     * {@link Statement#SUCCESS_NO_INFO} instead of row counts.
+     */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final boolean noRowCounts;
+        private final List<String> batchedProductCodes = new ArrayList<>();
+        private int batches;
+
+        private RecordingJdbcTemplate(DriverManagerDataSource dataSource, boolean noRowCounts) {
+            super(dataSource);
+            this.noRowCounts = noRowCounts;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches++;
+            batchArgs.forEach(args -> batchedProductCodes.add((String) args[1]));
+            int[] counts = super.batchUpdate(sql, batchArgs);
+            if (noRowCounts) {
+                Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dev.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({ReservationInventoryService.class, OptimisticRetryExecutor.class})
+class ConditionalReservationTest {
+
+    private static final String PRODUCT_CODE = "LAPTOP-001";
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationInventoryService inventoryService;
+
+    @BeforeEach
+    void setup() {
+        inventoryRepository.deleteAll();
+        inventoryRepository.saveAndFlush(new Inventory(PRODUCT_CODE, 5));
+    }
+
+    @Test
+    void decrementsAndBumpsTheVersionWhenEnoughIsLeft() {
+        long versionBefore = inventoryRepository.findByProductCode(PRODUCT_CODE).orElseThrow().getVersion();
+
+        assertThat(inventoryRepository.decrementStockIfAvailable(PRODUCT_CODE, 3)).isEqualTo(1);
+
+        Inventory inventory = inventoryRepository.findByProductCode(PRODUCT_CODE).orElseThrow();
+        assertThat(inventory.getStock()).isEqualTo(2);
+        assertThat(inventory.getVersion()).isEqualTo(versionBefore + 1);
+    }
+
+    @Test
+    void leavesTheRowAloneWhenShortOfStock() {
+        long versionBefore = inventoryRepository.findByProductCode(PRODUCT_CODE).orElseThrow().getVersion();
+
+        assertThat(inventoryRepository.decrementStockIfAvailable(PRODUCT_CODE, 6)).isEqualTo(0);
+
+        Inventory inventory = inventoryRepository.findByProductCode(PRODUCT_CODE).orElseThrow();
+        assertThat(inventory.getStock()).isEqualTo(5);
+        assertThat(inventory.getVersion()).isEqualTo(versionBefore);
+    }
+
+    @Test
+    void updatesNothingForAnUnknownProduct() {
+        assertThat(inventoryRepository.decrementStockIfAvailable("UNKNOWN-001", 1)).isEqualTo(0);
+    }
+
+    @Test
+    void tellsSoldOutFromUnknown() {
+        assertThat(inventoryService.reserveConditional(PRODUCT_CODE, 5)).isTrue();
+        assertThat(inventoryService.reserveConditional(PRODUCT_CODE, 1)).isFalse();
+        assertThatThrownBy(() -> inventoryService.reserveConditional("UNKNOWN-001", 1))
+                .hasMessage("Product not found");
+        assertThatThrownBy(() -> inventoryService.reserveConditional(PRODUCT_CODE, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(inventoryRepository.findByProductCode(PRODUCT_CODE).orElseThrow().getStock()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,117 @@
+package com.dev.concurrency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotStockReservationServiceTest {
+
+    private static final String PRODUCT_CODE = "CONSOLE-001";
+
+    private final InventoryRepository repository = mock(InventoryRepository.class);
+
+    @Test
+    void confirmsAQueuedBatchWithOneDecrement() {
+        stockInInventory(10);
+        when(repository.decrementStockIfAvailable(PRODUCT_CODE, 5)).thenReturn(1);
+        HotStockReservationService service = service(Duration.ofHours(1));
+
+        CompletableFuture<Boolean> first = service.reserve(PRODUCT_CODE, 3);
+        CompletableFuture<Boolean> second = service.reserve(PRODUCT_CODE, 2);
+        // Nothing is confirmed before the write commits.
+        assertThat(first.isDone()).isFalse();
+
+        service.flush();
+
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isTrue();
+        verify(repository, times(1)).decrementStockIfAvailable(eq(PRODUCT_CODE), anyInt());
+    }
+
+    @Test
+    void confirmsOneByOneAndResyncsWhenInventoryHoldsLess() {
+        // Another path took 4 of the 10 units behind the counter's back, then 2 more.
+        when(repository.findByProductCode(PRODUCT_CODE))
+                .thenReturn(Optional.of(new Inventory(PRODUCT_CODE, 10)), Optional.of(new Inventory(PRODUCT_CODE, 2)));
+        when(repository.decrementStockIfAvailable(PRODUCT_CODE, 8)).thenReturn(0);
+        when(repository.decrementStockIfAvailable(PRODUCT_CODE, 4)).thenReturn(1, 0);
+        HotStockReservationService service = service(Duration.ofHours(1));
+
+        CompletableFuture<Boolean> first = service.reserve(PRODUCT_CODE, 4);
+        CompletableFuture<Boolean> second = service.reserve(PRODUCT_CODE, 4);
+        service.flush();
+
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isFalse();
+        // The counter now matches Inventory's 2 units.
+        assertThat(service.reserve(PRODUCT_CODE, 3).join()).isFalse();
+        assertThat(service.reserve(PRODUCT_CODE, 2).isDone()).isFalse();
+    }
+
+    @Test
+    void handsUnitsBackWhenTheWriteFails() {
+        stockInInventory(10);
+        when(repository.decrementStockIfAvailable(PRODUCT_CODE, 10)).thenThrow(new IllegalStateException("connection lost"));
+        HotStockReservationService service = service(Duration.ofHours(1));
+
+        CompletableFuture<Boolean> reservation = service.reserve(PRODUCT_CODE, 10);
+        service.flush();
+
+        assertThat(reservation.isCompletedExceptionally()).isTrue();
+        // All 10 units are available again instead of being lost with the failed write.
+        assertThat(service.reserve(PRODUCT_CODE, 10).isDone()).isFalse();
+    }
+
+    @Test
+    void picksUpARestockAfterASoldOutRefusal() {
+        when(repository.findByProductCode(PRODUCT_CODE))
+                .thenReturn(Optional.of(new Inventory(PRODUCT_CODE, 1)), Optional.of(new Inventory(PRODUCT_CODE, 5)));
+        when(repository.decrementStockIfAvailable(PRODUCT_CODE, 1)).thenReturn(1);
+        HotStockReservationService service = service(Duration.ZERO);
+
+        CompletableFuture<Boolean> last = service.reserve(PRODUCT_CODE, 1);
+        service.flush();
+        assertThat(last.join()).isTrue();
+        assertThat(service.reserve(PRODUCT_CODE, 1).join()).isFalse();
+
+        service.flush();
+
+        assertThat(service.reserve(PRODUCT_CODE, 5).isDone()).isFalse();
+    }
+
+    @Test
+    void rereadsASoldOutProductAtMostOncePerInterval() {
+        stockInInventory(0);
+        HotStockReservationService service = service(Duration.ofHours(1));
+
+        assertThat(service.reserve(PRODUCT_CODE, 1).join()).isFalse();
+        service.flush();
+
+        // Only the initial load; the next re-read is an hour away.
+        verify(repository, times(1)).findByProductCode(PRODUCT_CODE);
+        verify(repository, never()).decrementStockIfAvailable(eq(PRODUCT_CODE), anyInt());
+    }
+
+    private void stockInInventory(int stock) {
+        when(repository.findByProductCode(PRODUCT_CODE)).thenReturn(Optional.of(new Inventory(PRODUCT_CODE, stock)));
+    }
+
+    private HotStockReservationService service(Duration restockCheckInterval) {
+        // A mocked manager hands out no real transactions; TransactionTemplate still runs each callback.
+        return new HotStockReservationService(repository, mock(PlatformTransactionManager.class), 4, List.of(),
+                Duration.ofMillis(50), restockCheckInterval);
+    }
+}
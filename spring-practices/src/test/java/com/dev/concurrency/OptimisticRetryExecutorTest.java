@@ -0,0 +1,111 @@
+package com.dev.concurrency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryExecutorTest {
+
+    private static final PlatformTransactionManager NO_TRANSACTIONS = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    private final AtomicInteger optimisticCalls = new AtomicInteger();
+    private final AtomicInteger pessimisticCalls = new AtomicInteger();
+
+    @Test
+    void retriesConflictsUntilAnAttemptSucceeds() {
+        OptimisticRetryExecutor executor = executor(5, 1.0);
+
+        String result = executor.execute("Stock", () -> {
+            if (optimisticCalls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "reserved";
+        }, this::pessimistic);
+
+        assertThat(result).isEqualTo("reserved");
+        assertThat(optimisticCalls.get()).isEqualTo(3);
+        OptimisticRetryExecutor.ConflictSnapshot stats = executor.conflictStats().get("Stock");
+        assertThat(stats.attempts()).isEqualTo(3L);
+        assertThat(stats.conflicts()).isEqualTo(2L);
+        assertThat(stats.exhausted()).isEqualTo(0L);
+    }
+
+    @Test
+    void rethrowsTheConflictOnceAttemptsRunOut() {
+        OptimisticRetryExecutor executor = executor(3, 1.0);
+
+        assertThatThrownBy(() -> executor.run("Stock", () -> {
+            optimisticCalls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }, pessimisticCalls::incrementAndGet)).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(optimisticCalls.get()).isEqualTo(3);
+        assertThat(pessimisticCalls.get()).isEqualTo(0);
+        assertThat(executor.conflictStats().get("Stock").exhausted()).isEqualTo(1L);
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        OptimisticRetryExecutor executor = executor(5, 1.0);
+
+        assertThatThrownBy(() -> executor.run("Stock", () -> {
+            optimisticCalls.incrementAndGet();
+            throw new IllegalStateException("Insufficient stock");
+        }, pessimisticCalls::incrementAndGet)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(optimisticCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToPessimisticWhenConflictsDominate() {
+        OptimisticRetryExecutor executor = executor(1, 0.5);
+
+        // Every optimistic attempt conflicts, so the decayed rate climbs past the threshold.
+        for (int i = 0; i < 10; i++) {
+            try {
+                executor.run("Inventory", () -> {
+                    optimisticCalls.incrementAndGet();
+                    throw new OptimisticLockingFailureException("conflict");
+                }, pessimisticCalls::incrementAndGet);
+            } catch (OptimisticLockingFailureException expected) {
+                // Only one attempt per call with max-attempts 1.
+            }
+        }
+
+        assertThat(executor.conflictStats().get("Inventory").pessimisticFallback()).isTrue();
+        assertThat(pessimisticCalls.get()).isGreaterThan(0);
+        assertThat(optimisticCalls.get()).isLessThan(10);
+    }
+
+    private String pessimistic() {
+        pessimisticCalls.incrementAndGet();
+        return "locked";
+    }
+
+    private static OptimisticRetryExecutor executor(int maxAttempts, double fallbackThreshold) {
+        return new OptimisticRetryExecutor(NO_TRANSACTIONS, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5),
+                fallbackThreshold);
+    }
+}
@@ -0,0 +1,105 @@
+package com.dev.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedStockCounterTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void concurrentTakesNeverExceedTheStock() throws Exception {
+        ShardedStockCounter counter = new ShardedStockCounter(8, 10_000);
+        AtomicLong taken = new AtomicLong();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                if (counter.tryTake(quantity)) {
+                    taken.addAndGet(quantity);
+                }
+            }
+        });
+
+        // 16 threads asking for ~160,000 units: the stock runs out, and not one unit too many is handed out.
+        assertThat(taken.get() + counter.available()).isEqualTo(10_000L);
+        assertThat(counter.available()).isGreaterThanOrEqualTo(0L);
+    }
+
+    @Test
+    void unitsPutBackAreConserved() throws Exception {
+        ShardedStockCounter counter = new ShardedStockCounter(8, 1_000);
+        AtomicLong taken = new AtomicLong();
+        AtomicLong returned = new AtomicLong();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                if (counter.tryTake(5)) {
+                    taken.addAndGet(5);
+                    if (i % 2 == 0) {
+                        counter.add(5);
+                        returned.addAndGet(5);
+                    }
+                }
+            }
+        });
+
+        assertThat(counter.available()).isEqualTo(1_000 - taken.get() + returned.get());
+        assertThat(counter.available()).isGreaterThanOrEqualTo(0L);
+    }
+
+    @Test
+    void aTakeLargerThanAnyShardGathersFromSeveral() {
+        ShardedStockCounter counter = new ShardedStockCounter(8, 16);
+
+        // Each of the 8 shards holds 2 units.
+        assertThat(counter.tryTake(15)).isTrue();
+        assertThat(counter.tryTake(2)).isFalse();
+        assertThat(counter.available()).isEqualTo(1L);
+        assertThat(counter.tryTake(1)).isTrue();
+        assertThat(counter.available()).isEqualTo(0L);
+    }
+
+    @Test
+    void resetReplacesTheStock() {
+        ShardedStockCounter counter = new ShardedStockCounter(4, 10);
+        assertThat(counter.tryTake(10)).isTrue();
+
+        counter.reset(7);
+
+        assertThat(counter.available()).isEqualTo(7L);
+        assertThat(counter.tryTake(7)).isTrue();
+        assertThat(counter.tryTake(1)).isFalse();
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dev.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedLocksTest {
+
+    @Test
+    void roundsTheStripeCountUpToAPowerOfTwo() {
+        assertThat(new StripedLocks(1).stripeCount()).isEqualTo(1);
+        assertThat(new StripedLocks(2).stripeCount()).isEqualTo(2);
+        assertThat(new StripedLocks(3).stripeCount()).isEqualTo(4);
+        assertThat(new StripedLocks(64).stripeCount()).isEqualTo(64);
+        assertThat(new StripedLocks(65).stripeCount()).isEqualTo(128);
+    }
+
+    @Test
+    void rejectsFewerThanOneStripe() {
+        assertThatThrownBy(() -> new StripedLocks(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void equalKeysShareALock() {
+        StripedLocks locks = new StripedLocks(64);
+
+        assertThat(locks.lockFor(new String("PROD-7"))).isSameAs(locks.lockFor("PROD-7"));
+    }
+
+    @Test
+    void spreadsSimilarKeysAcrossStripes() {
+        StripedLocks locks = new StripedLocks(16);
+        int[] perStripe = new int[locks.stripeCount()];
+
+        // Product codes that differ only in their last characters, as real ones tend to.
+        for (int i = 0; i < 1600; i++) {
+            int index = locks.indexFor("PROD-" + i);
+            assertThat(index).isBetween(0, locks.stripeCount() - 1);
+            perStripe[index]++;
+        }
+
+        for (int count : perStripe) {
+            assertThat(count).isBetween(50, 150);
+        }
+    }
+
+    @Test
+    void serializesKeysOnTheSameStripe() throws InterruptedException {
+        StripedLocks locks = new StripedLocks(4);
+        Set<Integer> stripes = new HashSet<>();
+        String[] keys = new String[8];
+        // More keys than stripes, so some keys are bound to collide.
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "PROD-" + i;
+            stripes.add(locks.indexFor(keys[i]));
+        }
+        assertThat(stripes.size()).isLessThan(keys.length);
+
+        int[] counters = new int[locks.stripeCount()];
+        AtomicInteger maxHolders = new AtomicInteger();
+        AtomicInteger[] holders = new AtomicInteger[locks.stripeCount()];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new AtomicInteger();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(keys.length);
+        CountDownLatch start = new CountDownLatch(1);
+        for (String key : keys) {
+            executor.submit(() -> {
+                start.await();
+                int index = locks.indexFor(key);
+                ReentrantLock lock = locks.lockFor(key);
+                for (int i = 0; i < 10_000; i++) {
+                    lock.lock();
+                    try {
+                        maxHolders.accumulateAndGet(holders[index].incrementAndGet(), Math::max);
+                        counters[index]++;
+                        holders[index].decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(maxHolders.get()).isEqualTo(1);
+        int total = 0;
+        for (int counter : counters) {
+            total += counter;
+        }
+        assertThat(total).isEqualTo(keys.length * 10_000);
+    }
+}
@@ -0,0 +1,73 @@
+package tollrate.store;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tollrate.domain.TollRate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original linear stream scan with the indexed {@link TollRateTable}.
+ *
+ * Run with {@code ./gradlew :tollrate-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TollRateLookupBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"10", "10000", "1000000"})
+    public int stations;
+
+    private List<TollRate> tollRates;
+    private TollRateTable table;
+    private int[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tollRates = new ArrayList<>(stations);
+        for (int i = 0; i < stations; i++) {
+            tollRates.add(new TollRate(1000 + i, 0.5f + (i % 100) / 100f, "2024-01-01T00:00:00Z"));
+        }
+        table = TollRateTable.of(tollRates);
+
+        Random random = new Random(42);
+        probes = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = 1000 + random.nextInt(stations);
+        }
+    }
+
+    @Benchmark
+    public TollRate streamScan() {
+        int stationId = nextProbe();
+        return tollRates.stream().filter(tollRate -> stationId == tollRate.stationId()).findAny().get();
+    }
+
+    @Benchmark
+    public TollRate indexedTable() {
+        return table.find(nextProbe());
+    }
+
+    private int nextProbe() {
+        return probes[next++ & (PROBES - 1)];
+    }
+}
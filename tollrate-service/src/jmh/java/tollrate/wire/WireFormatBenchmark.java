@@ -0,0 +1,70 @@
+package tollrate.wire;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tollrate.domain.TollRate;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Jackson JSON with CBOR for toll rates: encode and decode cost of a single rate
+ * and of a batch. Payload sizes are printed during setup.
+ *
+ * Run with {@code ./gradlew :tollrate-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<TollRate>> TOLL_RATE_LIST = new TypeReference<>() { };
+
+    @Param({"JSON", "CBOR"})
+    public WireFormat format;
+
+    @Param({"1", "1000"})
+    public int rates;
+
+    private ObjectMapper mapper;
+    private List<TollRate> tollRates;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        mapper = format == WireFormat.CBOR ? CBORMapper.builder().build() : JsonMapper.builder().build();
+        tollRates = new ArrayList<>(rates);
+        for (int i = 0; i < rates; i++) {
+            tollRates.add(new TollRate(1000 + i, 0.5f + (i % 100) / 100f, "2024-01-01T08:15:00Z"));
+        }
+        encoded = mapper.writeValueAsBytes(tollRates);
+        System.out.printf("%n%s payload for %d rates: %d bytes%n", format, rates, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return mapper.writeValueAsBytes(tollRates);
+    }
+
+    @Benchmark
+    public List<TollRate> decode() {
+        return mapper.readValue(encoded, TOLL_RATE_LIST);
+    }
+}
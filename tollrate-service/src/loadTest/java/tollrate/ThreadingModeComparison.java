@@ -0,0 +1,123 @@
+package tollrate;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs tollrate-service twice in this JVM, first on Tomcat's platform-thread pool and then
+ * with virtual threads. Each run puts the same closed-loop load on {@code /tollrate/{id}},
+ * with every lookup blocked for {@code tollrate.store.simulated-latency} as if the rates
+ * came from remote storage. It prints throughput and latency for each mode side by side.
+ *
+ * With a blocking latency L and a pool of T threads, platform threads top out near T / L
+ * requests per second. Virtual threads should keep scaling with concurrency until CPU or
+ * sockets run out.
+ *
+ * Arguments: simulated storage latency (e.g. 50ms), concurrent clients, seconds per mode.
+ */
+public class ThreadingModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        Duration storageLatency = parseLatency(args.length > 0 ? args[0] : "50ms");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        System.out.println("=== Platform vs Virtual Threads ===");
+        System.out.printf("Storage latency %d ms, %d concurrent clients, %d s per mode, Tomcat max threads 200%n%n",
+                storageLatency.toMillis(), clients, seconds);
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtual : new boolean[] {false, true}) {
+            ConfigurableApplicationContext service = SpringApplication.run(TollRateServiceApplication.class,
+                    "--server.port=0",
+                    "--server.tomcat.threads.max=200",
+                    "--spring.threads.virtual.enabled=" + virtual,
+                    "--tollrate.store.simulated-latency=" + storageLatency.toMillis() + "ms",
+                    "--eureka.client.enabled=false",
+                    "--logging.level.root=WARN");
+            try {
+                String url = "http://localhost:" + service.getEnvironment().getProperty("local.server.port") + "/tollrate/1000";
+                results.add(run(virtual ? "virtual" : "platform", url, clients, seconds));
+            } finally {
+                service.close();
+            }
+        }
+        System.out.println();
+        results.forEach(System.out::println);
+    }
+
+    private static String run(String mode, String url, int clients, int seconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        // Short warm-up so JIT and connection setup do not count against either mode.
+        long warmUpEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        long start = warmUpEnd;
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                users.submit(() -> {
+                    while (true) {
+                        long sentAt = System.nanoTime();
+                        if (sentAt >= deadline) {
+                            return;
+                        }
+                        boolean success;
+                        try {
+                            success = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        if (sentAt >= start) {
+                            latencies.add(System.nanoTime() - sentAt);
+                            (success ? ok : failed).increment();
+                        }
+                    }
+                });
+            }
+        }
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        String result = String.format("%-8s  %8.0f req/s  ok=%d failed=%d  p50=%.1f ms  p99=%.1f ms  max=%.1f ms",
+                mode, ok.sum() / (double) seconds, ok.sum(), failed.sum(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        System.out.println(result);
+        return result;
+    }
+
+    private static Duration parseLatency(String value) {
+        return value.endsWith("ms")
+                ? Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)))
+                : Duration.ofMillis(Long.parseLong(value));
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(sortedNanos.length * quantile) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
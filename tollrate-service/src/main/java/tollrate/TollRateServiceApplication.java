@@ -3,10 +3,19 @@ package tollrate;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import tollrate.metrics.LatencyHistogram;
 
 @SpringBootApplication
+@EnableScheduling
 public class TollRateServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(TollRateServiceApplication.class, args);
     }
+
+    @Bean
+    public LatencyHistogram lookupLatencyHistogram() {
+        return new LatencyHistogram();
+    }
 }
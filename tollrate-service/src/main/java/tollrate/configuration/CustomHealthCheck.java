@@ -1,4 +1,69 @@
 package tollrate.configuration;
 
-public class CustomHealthCheck {
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tollrate.metrics.LatencyHistogram;
+import tollrate.store.TollRateStore;
+import tollrate.store.TollRateTable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Readiness indicator for the rate table.
+ *
+ * The health is rebuilt on a fixed schedule and cached, so a probe only reads a volatile
+ * field no matter how often Kubernetes calls it. Reports the table version, entry count
+ * and age, plus lookup latency percentiles over the last refresh interval. The service is
+ * out of service while the table is empty or older than {@code tollrate.health.max-table-age}
+ * (unlimited by default).
+ */
+@Component
+public class CustomHealthCheck implements HealthIndicator {
+
+    private final TollRateStore tollRateStore;
+    private final LatencyHistogram lookupLatencyHistogram;
+    private final Duration maxTableAge;
+
+    private volatile Health health = Health.unknown().build();
+
+    public CustomHealthCheck(TollRateStore tollRateStore,
+                             LatencyHistogram lookupLatencyHistogram,
+                             @Value("${tollrate.health.max-table-age:0s}") Duration maxTableAge) {
+        this.tollRateStore = tollRateStore;
+        this.lookupLatencyHistogram = lookupLatencyHistogram;
+        this.maxTableAge = maxTableAge;
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    @Scheduled(fixedDelayString = "${tollrate.health.refresh-interval:5s}")
+    public void refresh() {
+        TollRateTable table = tollRateStore.current();
+        Duration age = Duration.between(table.createdAt(), Instant.now());
+        LatencyHistogram.Snapshot latency = lookupLatencyHistogram.intervalSnapshot();
+
+        boolean stale = !maxTableAge.isZero() && age.compareTo(maxTableAge) > 0;
+        Health.Builder builder = table.size() == 0 || stale ? Health.outOfService() : Health.up();
+        health = builder
+                .withDetail("version", table.version())
+                .withDetail("contentHash", table.contentHash())
+                .withDetail("entries", table.size())
+                .withDetail("publishedAt", table.createdAt().toString())
+                .withDetail("ageSeconds", age.toSeconds())
+                .withDetail("lookupLatencyMicros", Map.of(
+                        "count", latency.count(),
+                        "p50", latency.p50Nanos() / 1_000,
+                        "p95", latency.p95Nanos() / 1_000,
+                        "p99", latency.p99Nanos() / 1_000,
+                        "max", latency.maxNanos() / 1_000))
+                .build();
+    }
 }
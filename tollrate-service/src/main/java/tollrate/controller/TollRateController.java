@@ -3,31 +3,232 @@ package tollrate.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tollrate.domain.QuoteRequest;
 import tollrate.domain.TollRate;
+import tollrate.metrics.LatencyHistogram;
+import tollrate.schedule.RateSchedule;
+import tollrate.schedule.RateScheduleStore;
+import tollrate.store.TollRateStore;
+import tollrate.store.TollRateTable;
+import tollrate.stream.TollRateChangePublisher;
+import tollrate.wire.TollRateEncoder;
+import tollrate.wire.WireFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 public class TollRateController {
-    private final List<TollRate> tollRates;
+    private final TollRateStore tollRateStore;
+    private final RateScheduleStore rateScheduleStore;
+    private final TollRateChangePublisher changePublisher;
+    private final TollRateEncoder tollRateEncoder;
+    private final LatencyHistogram lookupLatencyHistogram;
+    private final Duration simulatedStorageLatency;
     private final Logger logger = LoggerFactory.getLogger(TollRateController.class);
 
-    public TollRateController() {
-        tollRates = new ArrayList<>();
-        tollRates.add(new TollRate(1000, 0.55f, Instant.now().toString()));
-        tollRates.add(new TollRate(1001, 1.05f, Instant.now().toString()));
-        tollRates.add(new TollRate(1002, 0.60f, Instant.now().toString()));
-        tollRates.add(new TollRate(1003, 1.00f, Instant.now().toString()));
+    public TollRateController(TollRateStore tollRateStore,
+                              RateScheduleStore rateScheduleStore,
+                              TollRateChangePublisher changePublisher,
+                              TollRateEncoder tollRateEncoder,
+                              LatencyHistogram lookupLatencyHistogram,
+                              @Value("${tollrate.store.simulated-latency:0ms}") Duration simulatedStorageLatency) {
+        this.tollRateStore = tollRateStore;
+        this.rateScheduleStore = rateScheduleStore;
+        this.changePublisher = changePublisher;
+        this.tollRateEncoder = tollRateEncoder;
+        this.lookupLatencyHistogram = lookupLatencyHistogram;
+        this.simulatedStorageLatency = simulatedStorageLatency;
     }
 
+    /**
+     * Returns the station's rate, tagged with the version of the rate table it came from.
+     * A matching {@code If-None-Match} gets a 304; otherwise the bytes cached on the table
+     * are written as-is, so repeated reads of a station skip serialization. Clients that
+     * accept {@code application/cbor} get the rate in CBOR instead of JSON.
+     */
     @RequestMapping("/tollrate/{stationId}")
-    public TollRate getTollRate(@PathVariable int stationId) {
+    public ResponseEntity<byte[]> getTollRate(@PathVariable int stationId,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                              WebRequest request) {
         logger.info("Station requested: {}", stationId);
-        return tollRates.stream().filter(tollRate -> stationId == tollRate.stationId()).findAny().get();
+        long start = System.nanoTime();
+        try {
+            simulateStorageLatency();
+            TollRateTable table = tollRateStore.current();
+            if (table.find(stationId) == null) {
+                throw new TollRateNotFoundException(stationId);
+            }
+            WireFormat format = WireFormat.negotiate(accept);
+            String etag = etag(table, format);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            byte[] body = table.encoded(stationId, format, tollRateEncoder::encode);
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).contentType(format.mediaType()).body(body);
+        } finally {
+            lookupLatencyHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Quotes the scheduled rate at the given instant (now by default). Stations without a
+     * schedule are quoted their current flat rate.
+     */
+    @RequestMapping("/tollrate/{stationId}/quote")
+    public TollRate quoteTollRate(@PathVariable int stationId, @RequestParam(required = false) Instant at) {
+        TollRate quote = quote(stationId, at != null ? at : Instant.now());
+        if (quote == null) {
+            throw new TollRateNotFoundException(stationId);
+        }
+        return quote;
+    }
+
+    /**
+     * Quotes many (station, instant) pairs in one call, answering in request order. Unknown
+     * stations come back with a {@code null} rate.
+     */
+    @PostMapping("/tollrate/quotes")
+    public List<TollRate> quoteTollRates(@RequestBody List<QuoteRequest> requests) {
+        List<TollRate> quotes = new ArrayList<>(requests.size());
+        for (QuoteRequest request : requests) {
+            Instant instant = request.at() != null ? request.at() : Instant.now();
+            TollRate quote = quote(request.stationId(), instant);
+            quotes.add(quote != null ? quote : new TollRate(request.stationId(), null, instant.toString()));
+        }
+        return quotes;
+    }
+
+    /**
+     * Streams the rates of the requested stations as a JSON array, writing each record as
+     * it is serialized (or straight from the table's cached bytes). Stations can be given as
+     * a list ({@code stationIds=1000,1001}) or an inclusive range ({@code from=1000&to=1999});
+     * with neither, the whole network is exported. Unknown station ids are skipped.
+     * The ETag is that of the whole table, so a matching {@code If-None-Match} gets a 304
+     * before anything is streamed.
+     */
+    @GetMapping(value = "/tollrates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTollRates(@RequestParam(required = false) int[] stationIds,
+                                                              @RequestParam(required = false) Integer from,
+                                                              @RequestParam(required = false) Integer to,
+                                                              WebRequest request) {
+        TollRateTable table = tollRateStore.current();
+        logger.info("Batch requested: {} ids, range {}..{}", stationIds != null ? stationIds.length : 0, from, to);
+        String etag = etag(table);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        StreamingResponseBody body = out -> {
+            out.write('[');
+            boolean first = true;
+            if (stationIds != null) {
+                for (int stationId : stationIds) {
+                    byte[] bytes = table.encoded(stationId, WireFormat.JSON, tollRateEncoder::encode);
+                    if (bytes != null) {
+                        first = writeElement(out, bytes, first);
+                    }
+                }
+            } else {
+                int position = from != null ? table.lowerBound(from) : 0;
+                int end = to != null && to < Integer.MAX_VALUE ? table.lowerBound(to + 1) : table.size();
+                for (; position < end; position++) {
+                    first = writeElement(out, table.encodedAt(position, WireFormat.JSON, tollRateEncoder::encode), first);
+                }
+            }
+            out.write(']');
+        };
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Server-sent-event stream of rate changes for a station group ({@code stationIds}), a
+     * range ({@code from}/{@code to}) or the whole network. The current rates are sent first.
+     */
+    @GetMapping(value = "/tollrates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTollRates(@RequestParam(required = false) int[] stationIds,
+                                      @RequestParam(required = false) Integer from,
+                                      @RequestParam(required = false) Integer to) {
+        logger.info("Rate stream requested: {} ids, range {}..{}", stationIds != null ? stationIds.length : 0, from, to);
+        return changePublisher.subscribe(stationIds, from, to);
+    }
+
+    @PutMapping("/tollrates")
+    public void replaceTollRates(@RequestBody List<TollRate> tollRates) {
+        logger.info("Replacing rate table with {} stations", tollRates.size());
+        tollRateStore.replaceAll(tollRates);
+    }
+
+    @PutMapping("/tollrate/schedules")
+    public void replaceRateSchedules(@RequestBody List<RateSchedule> schedules) {
+        logger.info("Replacing rate schedules for {} stations", schedules.size());
+        rateScheduleStore.replaceAll(schedules);
+    }
+
+    private TollRate quote(int stationId, Instant instant) {
+        Float scheduledRate = rateScheduleStore.rateAt(stationId, instant);
+        if (scheduledRate != null) {
+            return new TollRate(stationId, scheduledRate, instant.toString());
+        }
+        TollRate tollRate = tollRateStore.find(stationId);
+        return tollRate == null ? null : new TollRate(stationId, tollRate.currentRate(), instant.toString());
+    }
+
+    /**
+     * Stands in for a remote rate store when {@code tollrate.store.simulated-latency} is set,
+     * so platform- and virtual-thread modes can be compared under blocking I/O.
+     */
+    private void simulateStorageLatency() {
+        if (simulatedStorageLatency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(simulatedStorageLatency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String etag(TollRateTable table) {
+        return etag(table, WireFormat.JSON);
+    }
+
+    private static String etag(TollRateTable table, WireFormat format) {
+        // The content hash, unlike the version, is the same for equal tables on every
+        // instance and across restarts. Each encoding is a different representation, so
+        // it needs its own strong ETag.
+        return format == WireFormat.JSON
+                ? "\"" + table.contentHash() + "\""
+                : "\"" + table.contentHash() + "-" + format.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    private static boolean writeElement(OutputStream out, byte[] bytes, boolean first) throws IOException {
+        if (!first) {
+            out.write(',');
+        }
+        out.write(bytes);
+        return false;
     }
 }
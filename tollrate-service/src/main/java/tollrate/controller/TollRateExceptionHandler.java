@@ -0,0 +1,28 @@
+package tollrate.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.Objects;
+
+@RestControllerAdvice
+public class TollRateExceptionHandler {
+
+    private final Logger logger = LoggerFactory.getLogger(TollRateExceptionHandler.class);
+
+    /**
+     * Rate tables and schedules reject bad input (missing or duplicate station ids) with an
+     * IllegalArgumentException; that is the caller's mistake, not a server error.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidInput(IllegalArgumentException e) {
+        String message = Objects.requireNonNullElse(e.getMessage(), "Invalid request");
+        logger.warn("Rejected request: {}", message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", message));
+    }
+}
@@ -0,0 +1,11 @@
+package tollrate.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TollRateNotFoundException extends RuntimeException {
+    public TollRateNotFoundException(int stationId) {
+        super("No toll rate for station " + stationId);
+    }
+}
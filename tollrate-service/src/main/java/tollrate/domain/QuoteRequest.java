@@ -0,0 +1,8 @@
+package tollrate.domain;
+
+import java.time.Instant;
+
+public record QuoteRequest(
+        Integer stationId,
+        Instant at
+) { }
@@ -0,0 +1,89 @@
+package tollrate.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (four per power of two, so any
+ * reported value is within 25% of the true one).
+ *
+ * Recording is a single {@link LongAdder} increment, cheap enough for the request path.
+ * Percentiles are computed from the counts recorded since the previous
+ * {@link #intervalSnapshot()}, so a snapshot reflects recent traffic rather than the
+ * whole lifetime of the process.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final long[] previousCounts = new long[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        counts[indexOf(nanos)].increment();
+    }
+
+    /**
+     * Percentiles over the values recorded since the previous call.
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] interval = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long current = counts[i].sum();
+            interval[i] = current - previousCounts[i];
+            previousCounts[i] = current;
+            total += interval[i];
+        }
+        return new Snapshot(total,
+                percentile(interval, total, 0.50),
+                percentile(interval, total, 0.95),
+                percentile(interval, total, 0.99),
+                percentile(interval, total, 1.0));
+    }
+
+    private static long percentile(long[] interval, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += interval[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long upperBound(int index) {
+        return index + 1 < BUCKETS ? lowerBound(index + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    public record Snapshot(long count, long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) { }
+}
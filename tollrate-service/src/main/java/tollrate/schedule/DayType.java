@@ -0,0 +1,17 @@
+package tollrate.schedule;
+
+import java.time.DayOfWeek;
+
+public enum DayType {
+    WEEKDAY,
+    WEEKEND,
+    EVERY_DAY;
+
+    public boolean includes(DayOfWeek day) {
+        return switch (this) {
+            case WEEKDAY -> day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY;
+            case WEEKEND -> day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+            case EVERY_DAY -> true;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package tollrate.schedule;
+
+import java.time.LocalTime;
+
+/**
+ * A time band during which the station's base rate is scaled by a congestion multiplier.
+ * A band whose end is before its start wraps past midnight into the following day;
+ * equal start and end cover the whole day. All fields are required and the multiplier
+ * must not be negative.
+ */
+public record RateBand(
+        DayType days,
+        LocalTime start,
+        LocalTime end,
+        float congestionMultiplier
+) { }
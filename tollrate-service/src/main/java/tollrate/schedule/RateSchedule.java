@@ -0,0 +1,15 @@
+package tollrate.schedule;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Rate rules for one station. Bands are applied in order, so a later band overrides an
+ * earlier one where they overlap; time not covered by any band is charged the base rate.
+ */
+public record RateSchedule(
+        Integer stationId,
+        Float baseRate,
+        ZoneId zone,
+        List<RateBand> bands
+) { }
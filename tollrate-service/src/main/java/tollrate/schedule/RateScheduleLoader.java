@@ -0,0 +1,48 @@
+package tollrate.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Loads the rate schedules once at startup.
+ */
+@Component
+public class RateScheduleLoader implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateScheduleLoader.class);
+
+    private final JsonMapper mapper;
+    private final RateScheduleStore scheduleStore;
+    private final Resource location;
+
+    public RateScheduleLoader(JsonMapper mapper,
+                              RateScheduleStore scheduleStore,
+                              @Value("${tollrate.schedules.location:classpath:data/rate-schedules.json}") Resource location) {
+        this.mapper = mapper;
+        this.scheduleStore = scheduleStore;
+        this.location = location;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        if (!location.exists()) {
+            LOGGER.warn("No rate schedules found at {}", location);
+            return;
+        }
+        try (InputStream in = location.getInputStream()) {
+            List<RateSchedule> schedules = mapper.readValue(in, new TypeReference<>() {
+            });
+            scheduleStore.replaceAll(schedules);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package tollrate.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Holds the compiled rate schedules of every station.
+ *
+ * Schedules are compiled once when loaded and published as an immutable snapshot with a
+ * single volatile write, so quoting a rate never takes a lock and never re-evaluates rules.
+ */
+@Component
+public class RateScheduleStore {
+
+    private final Logger logger = LoggerFactory.getLogger(RateScheduleStore.class);
+
+    private volatile Snapshot snapshot = new Snapshot(new int[0], new WeeklyRateIndex[0]);
+
+    /**
+     * Returns the scheduled rate for the station at the given instant, or {@code null}
+     * when the station has no schedule.
+     */
+    public Float rateAt(int stationId, Instant instant) {
+        WeeklyRateIndex index = snapshot.find(stationId);
+        return index == null ? null : index.rateAt(instant);
+    }
+
+    /**
+     * Compiles the schedules and atomically replaces all existing ones.
+     */
+    public void replaceAll(Collection<RateSchedule> schedules) {
+        RateSchedule[] sorted = schedules.toArray(new RateSchedule[0]);
+        for (RateSchedule schedule : sorted) {
+            // Checked before sorting, which would otherwise fail on a null id with an NPE.
+            if (schedule == null || schedule.stationId() == null) {
+                throw new IllegalArgumentException("Every schedule needs a station id");
+            }
+        }
+        Arrays.sort(sorted, Comparator.comparingInt(RateSchedule::stationId));
+
+        int[] stationIds = new int[sorted.length];
+        WeeklyRateIndex[] indexes = new WeeklyRateIndex[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            stationIds[i] = sorted[i].stationId();
+            if (i > 0 && stationIds[i] == stationIds[i - 1]) {
+                throw new IllegalArgumentException("Duplicate schedule for station: " + stationIds[i]);
+            }
+            indexes[i] = WeeklyRateIndex.compile(sorted[i]);
+        }
+        snapshot = new Snapshot(stationIds, indexes);
+        logger.info("Rate schedules replaced: {} stations", sorted.length);
+    }
+
+    public int size() {
+        return snapshot.stationIds.length;
+    }
+
+    private record Snapshot(int[] stationIds, WeeklyRateIndex[] indexes) {
+        WeeklyRateIndex find(int stationId) {
+            int position = Arrays.binarySearch(stationIds, stationId);
+            return position >= 0 ? indexes[position] : null;
+        }
+    }
+}
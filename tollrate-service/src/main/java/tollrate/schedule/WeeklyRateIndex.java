@@ -0,0 +1,114 @@
+package tollrate.schedule;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A {@link RateSchedule} compiled into sorted, non-overlapping intervals over one week.
+ *
+ * All rule evaluation happens once in {@link #compile(RateSchedule)}; answering
+ * "rate at instant T" is a conversion to second-of-week plus a binary search.
+ */
+public final class WeeklyRateIndex {
+
+    static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    static final int SECONDS_PER_WEEK = 7 * SECONDS_PER_DAY;
+
+    private final ZoneId zone;
+    private final int[] intervalStarts;
+    private final float[] intervalRates;
+
+    private WeeklyRateIndex(ZoneId zone, int[] intervalStarts, float[] intervalRates) {
+        this.zone = zone;
+        this.intervalStarts = intervalStarts;
+        this.intervalRates = intervalRates;
+    }
+
+    public static WeeklyRateIndex compile(RateSchedule schedule) {
+        if (schedule.stationId() == null || schedule.baseRate() == null) {
+            throw new IllegalArgumentException("Schedule needs a station id and a base rate");
+        }
+        ZoneId zone = schedule.zone() != null ? schedule.zone() : ZoneId.of("UTC");
+        List<RateBand> bands = schedule.bands() != null ? schedule.bands() : List.of();
+        for (RateBand band : bands) {
+            requireValid(schedule.stationId(), band);
+        }
+
+        // Expand every band into concrete [from, to) ranges in second-of-week.
+        int[][] ranges = new int[bands.size() * 14][];
+        float[] multipliers = new float[ranges.length];
+        int rangeCount = 0;
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+        for (RateBand band : bands) {
+            int start = band.start().toSecondOfDay();
+            int end = band.end().toSecondOfDay();
+            int length = end > start ? end - start : SECONDS_PER_DAY - start + end;
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (!band.days().includes(day)) {
+                    continue;
+                }
+                int from = (day.getValue() - 1) * SECONDS_PER_DAY + start;
+                int to = from + length;
+                // A band wrapping past Sunday midnight continues on Monday.
+                if (to > SECONDS_PER_WEEK) {
+                    ranges[rangeCount] = new int[]{0, to - SECONDS_PER_WEEK};
+                    multipliers[rangeCount++] = band.congestionMultiplier();
+                    boundaries.add(to - SECONDS_PER_WEEK);
+                    to = SECONDS_PER_WEEK;
+                }
+                ranges[rangeCount] = new int[]{from, to};
+                multipliers[rangeCount++] = band.congestionMultiplier();
+                boundaries.add(from);
+                boundaries.add(to);
+            }
+        }
+        boundaries.remove(SECONDS_PER_WEEK);
+
+        // Resolve each elementary interval to the last band covering it, then merge
+        // neighbours that ended up with the same rate.
+        int[] starts = new int[boundaries.size()];
+        float[] rates = new float[boundaries.size()];
+        int count = 0;
+        for (int boundary : boundaries) {
+            float rate = schedule.baseRate();
+            for (int r = 0; r < rangeCount; r++) {
+                if (ranges[r][0] <= boundary && boundary < ranges[r][1]) {
+                    rate = schedule.baseRate() * multipliers[r];
+                }
+            }
+            if (count == 0 || rates[count - 1] != rate) {
+                starts[count] = boundary;
+                rates[count++] = rate;
+            }
+        }
+        return new WeeklyRateIndex(zone, Arrays.copyOf(starts, count), Arrays.copyOf(rates, count));
+    }
+
+    private static void requireValid(int stationId, RateBand band) {
+        if (band == null || band.days() == null || band.start() == null || band.end() == null) {
+            throw new IllegalArgumentException("Rate band of station " + stationId + " needs days, a start and an end");
+        }
+        // Also rejects NaN.
+        if (!(band.congestionMultiplier() >= 0)) {
+            throw new IllegalArgumentException("Rate band of station " + stationId + " has a negative congestion multiplier");
+        }
+    }
+
+    public float rateAt(Instant instant) {
+        LocalDateTime local = LocalDateTime.ofInstant(instant, zone);
+        int secondOfWeek = (local.getDayOfWeek().getValue() - 1) * SECONDS_PER_DAY
+                + local.toLocalTime().toSecondOfDay();
+        int index = Arrays.binarySearch(intervalStarts, secondOfWeek);
+        return intervalRates[index >= 0 ? index : -index - 2];
+    }
+
+    public int intervalCount() {
+        return intervalStarts.length;
+    }
+}
@@ -0,0 +1,60 @@
+package tollrate.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import tollrate.domain.TollRate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Holds the current {@link TollRateTable}.
+ *
+ * Readers always see a complete table: a bulk replacement builds the new table off to the
+ * side and then publishes it with a single volatile write, so lookups never take a lock.
+ * Every published table gets the next version number; only writers synchronize.
+ */
+@Component
+public class TollRateStore {
+
+    private final Logger logger = LoggerFactory.getLogger(TollRateStore.class);
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile TollRateTable table;
+
+    public TollRateStore(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        table = TollRateTable.of(List.of(
+                new TollRate(1000, 0.55f, Instant.now().toString()),
+                new TollRate(1001, 1.05f, Instant.now().toString()),
+                new TollRate(1002, 0.60f, Instant.now().toString()),
+                new TollRate(1003, 1.00f, Instant.now().toString())
+        ), 1);
+    }
+
+    /**
+     * Returns the rate for the station, or {@code null} when the station is unknown.
+     */
+    public TollRate find(int stationId) {
+        return table.find(stationId);
+    }
+
+    /**
+     * Atomically replaces the whole rate table and publishes a {@link TollRateTableReplacedEvent}.
+     */
+    public synchronized TollRateTable replaceAll(Collection<TollRate> tollRates) {
+        TollRateTable previous = table;
+        TollRateTable replacement = TollRateTable.of(tollRates, previous.version() + 1);
+        table = replacement;
+        logger.info("Rate table replaced: {} stations, version {}", replacement.size(), replacement.version());
+        eventPublisher.publishEvent(new TollRateTableReplacedEvent(previous, replacement));
+        return replacement;
+    }
+
+    public TollRateTable current() {
+        return table;
+    }
+}
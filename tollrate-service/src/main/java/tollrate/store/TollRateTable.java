@@ -0,0 +1,220 @@
+package tollrate.store;
+
+import tollrate.domain.TollRate;
+import tollrate.wire.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * Immutable snapshot of the whole rate table.
+ *
+ * Rates are kept sorted by station id, and an open-addressing index maps a primitive
+ * {@code int} station id to its position, so a lookup never boxes the key and never
+ * scans the table. A table is never modified once built; replacing rates means building
+ * a new table and publishing it through {@link TollRateStore}.
+ *
+ * Each table carries the version it was published under, and caches the serialized form
+ * of each rate on first use; since the table never changes, the cached bytes stay valid
+ * for as long as the table is current.
+ *
+ * The version only counts replacements within this JVM, so every instance (and every
+ * restart) starts again at 1. Anything that leaves the process, such as an ETag, uses
+ * {@link #contentHash()} instead: it is the same for equal tables on any instance and
+ * differs whenever the rates do.
+ */
+public final class TollRateTable {
+
+    private static final int EMPTY = -1;
+
+    private final int[] stationIds;
+    private final TollRate[] rates;
+    private final int[] indexKeys;
+    private final int[] indexPositions;
+    private final int mask;
+    private final long version;
+    private final String contentHash;
+    private final Instant createdAt = Instant.now();
+    private final AtomicReferenceArray<byte[]>[] encoded;
+
+    private TollRateTable(TollRate[] sortedRates, long version) {
+        this.rates = sortedRates;
+        this.version = version;
+        this.contentHash = hash(sortedRates);
+        this.encoded = newEncodedCache(sortedRates.length);
+        this.stationIds = new int[sortedRates.length];
+        for (int i = 0; i < sortedRates.length; i++) {
+            stationIds[i] = sortedRates[i].stationId();
+        }
+
+        // Keep the load factor at or below 0.5 so probe sequences stay short.
+        int capacity = Integer.highestOneBit(Math.max(2, sortedRates.length) * 2 - 1) << 1;
+        this.mask = capacity - 1;
+        this.indexKeys = new int[capacity];
+        this.indexPositions = new int[capacity];
+        Arrays.fill(indexPositions, EMPTY);
+
+        for (int position = 0; position < stationIds.length; position++) {
+            int slot = slot(stationIds[position]);
+            while (indexPositions[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            indexKeys[slot] = stationIds[position];
+            indexPositions[slot] = position;
+        }
+    }
+
+    public static TollRateTable empty() {
+        return new TollRateTable(new TollRate[0], 0);
+    }
+
+    public static TollRateTable of(Collection<TollRate> tollRates) {
+        return of(tollRates, 0);
+    }
+
+    /**
+     * Builds a table from the given rates. Station ids must be present and unique.
+     */
+    public static TollRateTable of(Collection<TollRate> tollRates, long version) {
+        TollRate[] sorted = tollRates.toArray(new TollRate[0]);
+        for (TollRate tollRate : sorted) {
+            if (tollRate == null || tollRate.stationId() == null) {
+                throw new IllegalArgumentException("Every toll rate needs a station id");
+            }
+        }
+        Arrays.sort(sorted, Comparator.comparingInt(TollRate::stationId));
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i].stationId().intValue() == sorted[i - 1].stationId().intValue()) {
+                throw new IllegalArgumentException("Duplicate station id: " + sorted[i].stationId());
+            }
+        }
+        return new TollRateTable(sorted, version);
+    }
+
+    /**
+     * Returns the rate for the station, or {@code null} when the station is unknown.
+     */
+    public TollRate find(int stationId) {
+        int position = positionOf(stationId);
+        return position == EMPTY ? null : rates[position];
+    }
+
+    /**
+     * Returns the rate for the station serialized in the given format, or {@code null} when
+     * the station is unknown. The encoder runs on first access only; each format is cached
+     * separately.
+     */
+    public byte[] encoded(int stationId, WireFormat format, BiFunction<TollRate, WireFormat, byte[]> encoder) {
+        int position = positionOf(stationId);
+        return position == EMPTY ? null : encodedAt(position, format, encoder);
+    }
+
+    /**
+     * Serialized rate at the given position in station id order, see {@link #encoded}.
+     */
+    public byte[] encodedAt(int position, WireFormat format, BiFunction<TollRate, WireFormat, byte[]> encoder) {
+        AtomicReferenceArray<byte[]> cache = encoded[format.ordinal()];
+        byte[] bytes = cache.get(position);
+        if (bytes == null) {
+            // Racing threads may both encode; they produce identical bytes, so either wins.
+            bytes = encoder.apply(rates[position], format);
+            cache.lazySet(position, bytes);
+        }
+        return bytes;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Hex digest of every rate in the table, in station id order.
+     */
+    public String contentHash() {
+        return contentHash;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return rates.length;
+    }
+
+    /**
+     * Rate at the given position in station id order.
+     */
+    public TollRate rateAt(int position) {
+        return rates[position];
+    }
+
+    /**
+     * First position whose station id is greater than or equal to the given one; equals
+     * {@link #size()} when every station id is smaller.
+     */
+    public int lowerBound(int stationId) {
+        int position = Arrays.binarySearch(stationIds, stationId);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * Position of the station in id order, or -1 when the station is unknown.
+     */
+    int positionOf(int stationId) {
+        int slot = slot(stationId);
+        int position;
+        while ((position = indexPositions[slot]) != EMPTY) {
+            if (indexKeys[slot] == stationId) {
+                return position;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private int slot(int stationId) {
+        // Station ids are often sequential; spread them so neighbours don't cluster.
+        int h = stationId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static String hash(TollRate[] sortedRates) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every JVM", e);
+        }
+        ByteBuffer fixed = ByteBuffer.allocate(Integer.BYTES * 3);
+        for (TollRate rate : sortedRates) {
+            String timestamp = rate.timestamp() != null ? rate.timestamp() : "";
+            fixed.clear();
+            fixed.putInt(rate.stationId())
+                    .putInt(rate.currentRate() != null ? Float.floatToIntBits(rate.currentRate()) : 0x7fc00001)
+                    .putInt(timestamp.length());
+            digest.update(fixed.flip());
+            digest.update(timestamp.getBytes(StandardCharsets.UTF_8));
+        }
+        // 128 bits is plenty to tell rate tables apart, and keeps the ETag short.
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<byte[]>[] newEncodedCache(int length) {
+        AtomicReferenceArray<byte[]>[] cache = new AtomicReferenceArray[WireFormat.values().length];
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = new AtomicReferenceArray<>(length);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,9 @@
+package tollrate.store;
+
+/**
+ * Published after {@link TollRateStore} swaps in a new rate table.
+ */
+public record TollRateTableReplacedEvent(
+        TollRateTable previous,
+        TollRateTable current
+) { }
@@ -0,0 +1,26 @@
+package tollrate.stream;
+
+import java.util.Arrays;
+
+/**
+ * The stations a subscriber listens to: an explicit group of ids, an inclusive range,
+ * or the whole network when neither is given.
+ */
+record StationFilter(int[] sortedStationIds, Integer from, Integer to) {
+
+    static StationFilter of(int[] stationIds, Integer from, Integer to) {
+        int[] sorted = null;
+        if (stationIds != null) {
+            sorted = stationIds.clone();
+            Arrays.sort(sorted);
+        }
+        return new StationFilter(sorted, from, to);
+    }
+
+    boolean matches(int stationId) {
+        if (sortedStationIds != null) {
+            return Arrays.binarySearch(sortedStationIds, stationId) >= 0;
+        }
+        return (from == null || stationId >= from) && (to == null || stationId <= to);
+    }
+}
@@ -0,0 +1,268 @@
+package tollrate.stream;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tollrate.domain.TollRate;
+import tollrate.store.TollRateStore;
+import tollrate.store.TollRateTable;
+import tollrate.store.TollRateTableReplacedEvent;
+import tollrate.wire.TollRateEncoder;
+import tollrate.wire.WireFormat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes toll-rate changes to server-sent-event subscribers.
+ *
+ * Subscribers are async {@link SseEmitter}s, so an open stream holds no request thread.
+ * One scheduler thread works out what each subscriber should receive (initial snapshot,
+ * changes, removals, heartbeats) and only ever appends to that subscriber's bounded queue.
+ * The blocking writes happen on a virtual thread per subscriber while its queue is not
+ * empty. A stalled connection therefore only holds up its own events. If it falls
+ * {@code tollrate.stream.subscriber-queue} events behind, it is dropped, and the client
+ * reconnects and starts over from a fresh snapshot.
+ *
+ * Events are named {@code tollrate} for a station's current rate and
+ * {@code tollrate-removed} for a station that left the table. A {@code snapshot-complete}
+ * event marks the end of the initial snapshot, so a reconnecting client knows when it can
+ * replace its whole view. Each change is sent from the bytes cached on the rate table, so
+ * it is serialized once no matter how many subscribers get it.
+ */
+@Component
+public class TollRateChangePublisher {
+
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final Logger logger = LoggerFactory.getLogger(TollRateChangePublisher.class);
+    private final TollRateStore tollRateStore;
+    private final TollRateEncoder tollRateEncoder;
+    private final int queueCapacity;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService fanOut = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tollrate-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tollrate-sse-", 0).factory());
+
+    public TollRateChangePublisher(TollRateStore tollRateStore,
+                                   TollRateEncoder tollRateEncoder,
+                                   @Value("${tollrate.stream.subscriber-queue:1024}") int queueCapacity) {
+        this.tollRateStore = tollRateStore;
+        this.tollRateEncoder = tollRateEncoder;
+        this.queueCapacity = queueCapacity;
+        fanOut.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a stream for the given stations. The subscriber first receives the current rate
+     * of every matching station and a {@code snapshot-complete} marker, then every change as
+     * new rate tables are published.
+     */
+    public SseEmitter subscribe(int[] stationIds, Integer from, Integer to) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, StationFilter.of(stationIds, from, to));
+        emitter.onCompletion(() -> subscriber.close());
+        emitter.onTimeout(() -> subscriber.close());
+        emitter.onError(error -> subscriber.close());
+
+        fanOut.execute(() -> {
+            // Registered on the fan-out thread together with the snapshot, so every change
+            // published afterwards is queued behind it and none is missed.
+            if (subscriber.closed.get()) {
+                return;
+            }
+            TollRateTable table = tollRateStore.current();
+            subscribers.add(subscriber);
+            subscriber.enqueue(out -> {
+                for (int position = 0; position < table.size(); position++) {
+                    if (subscriber.filter.matches(table.rateAt(position).stationId())) {
+                        out.send(rateEvent(table, position));
+                    }
+                }
+                out.send(SseEmitter.event()
+                        .id(Long.toString(table.version()))
+                        .name("snapshot-complete")
+                        .data(EMPTY_OBJECT, MediaType.APPLICATION_JSON));
+            });
+        });
+        return emitter;
+    }
+
+    @EventListener
+    public void onTableReplaced(TollRateTableReplacedEvent event) {
+        fanOut.execute(() -> publishChanges(event.previous(), event.current()));
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        writers.shutdownNow();
+    }
+
+    private void publishChanges(TollRateTable previous, TollRateTable current) {
+        int[] changed = new int[current.size()];
+        int changedCount = 0;
+        for (int position = 0; position < current.size(); position++) {
+            TollRate tollRate = current.rateAt(position);
+            if (!tollRate.equals(previous.find(tollRate.stationId()))) {
+                changed[changedCount++] = position;
+            }
+        }
+        int[] removed = new int[previous.size()];
+        int removedCount = 0;
+        for (int position = 0; position < previous.size(); position++) {
+            int stationId = previous.rateAt(position).stationId();
+            if (current.find(stationId) == null) {
+                removed[removedCount++] = stationId;
+            }
+        }
+        if (changedCount + removedCount == 0 || subscribers.isEmpty()) {
+            return;
+        }
+        logger.info("Publishing {} rate changes and {} removals (version {}) to {} subscribers",
+                changedCount, removedCount, current.version(), subscribers.size());
+
+        int[] positions = Arrays.copyOf(changed, changedCount);
+        int[] removedStationIds = Arrays.copyOf(removed, removedCount);
+        for (Subscriber subscriber : subscribers) {
+            for (int position : positions) {
+                if (subscriber.filter.matches(current.rateAt(position).stationId())) {
+                    subscriber.enqueue(out -> out.send(rateEvent(current, position)));
+                }
+            }
+            for (int stationId : removedStationIds) {
+                if (subscriber.filter.matches(stationId)) {
+                    subscriber.enqueue(out -> out.send(SseEmitter.event()
+                            .id(Long.toString(current.version()))
+                            .name("tollrate-removed")
+                            .data(("{\"stationId\":" + stationId + "}").getBytes(StandardCharsets.UTF_8),
+                                    MediaType.APPLICATION_JSON)));
+                }
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder rateEvent(TollRateTable table, int position) {
+        return SseEmitter.event()
+                .id(Long.toString(table.version()))
+                .name("tollrate")
+                .data(table.encodedAt(position, WireFormat.JSON, tollRateEncoder::encode), MediaType.APPLICATION_JSON);
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(out -> out.send(SseEmitter.event().comment("heartbeat")));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Delivery {
+        void writeTo(SseEmitter emitter) throws IOException;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final StationFilter filter;
+        private final BlockingQueue<Delivery> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, StationFilter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        /**
+         * Never blocks: called from the fan-out thread for every subscriber.
+         */
+        void enqueue(Delivery delivery) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(delivery)) {
+                fail(new IllegalStateException("Subscriber fell " + queueCapacity + " events behind"));
+                return;
+            }
+            startWriting();
+        }
+
+        private void startWriting() {
+            if (writing.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::write);
+                } catch (RejectedExecutionException e) {
+                    writing.set(false);
+                }
+            }
+        }
+
+        private void write() {
+            do {
+                Delivery delivery;
+                while (!closed.get() && (delivery = queue.poll()) != null) {
+                    try {
+                        delivery.writeTo(emitter);
+                    } catch (IOException | IllegalStateException e) {
+                        fail(e);
+                        return;
+                    }
+                }
+                writing.set(false);
+                // Something queued after the last poll but before the flag was cleared would
+                // otherwise wait for the next event; pick it up unless another writer already has.
+            } while (!closed.get() && !queue.isEmpty() && writing.compareAndSet(false, true));
+        }
+
+        private void fail(Exception cause) {
+            if (!close()) {
+                return;
+            }
+            logger.debug("Dropping rate subscriber: {}", cause.getMessage());
+            // A stalled write holds the emitter's lock, so complete it off the fan-out thread.
+            try {
+                writers.execute(() -> emitter.completeWithError(cause));
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the container closes the connection.
+            }
+        }
+
+        /**
+         * Stops delivery. Returns false if the subscriber was already closed.
+         */
+        boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            subscribers.remove(this);
+            queue.clear();
+            return true;
+        }
+    }
+}
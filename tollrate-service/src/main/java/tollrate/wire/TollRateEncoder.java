@@ -0,0 +1,28 @@
+package tollrate.wire;
+
+import org.springframework.stereotype.Component;
+import tollrate.domain.TollRate;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Serializes toll rates in each {@link WireFormat}, for the endpoints that write cached
+ * bytes themselves instead of going through a message converter.
+ */
+@Component
+public class TollRateEncoder {
+
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+
+    public TollRateEncoder(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    public byte[] encode(TollRate tollRate, WireFormat format) {
+        return switch (format) {
+            case JSON -> jsonMapper.writeValueAsBytes(tollRate);
+            case CBOR -> cborMapper.writeValueAsBytes(tollRate);
+        };
+    }
+}
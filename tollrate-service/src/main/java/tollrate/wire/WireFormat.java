@@ -0,0 +1,66 @@
+package tollrate.wire;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodings the toll-rate endpoints can answer in.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format the client prefers most, by quality value and then specificity. CBOR
+     * is only chosen when the client names it explicitly. Wildcards, browsers and
+     * everything else get JSON, so existing clients see no change.
+     */
+    public static WireFormat negotiate(List<MediaType> accept) {
+        List<MediaType> preferred = new ArrayList<>(accept);
+        MimeTypeUtils.sortBySpecificity(preferred);
+        for (MediaType mediaType : preferred) {
+            if (mediaType.getQualityValue() <= 0) {
+                continue;
+            }
+            if (!mediaType.isWildcardType() && !mediaType.isWildcardSubtype()
+                    && MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+                return CBOR;
+            }
+            if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return JSON;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Negotiates from a raw {@code Accept} header. A missing or malformed header (or one
+     * with more types than Spring will sort) gets JSON, the same as a client that accepts
+     * anything.
+     */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        try {
+            return negotiate(MediaType.parseMediaTypes(accept));
+        } catch (IllegalArgumentException e) {
+            // InvalidMediaTypeException from parsing, InvalidMimeTypeException from sorting.
+            return JSON;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package tollrate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tollrate.domain.TollRate;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+@AutoConfigureMockMvc
+class TollRateCborIntegrationTest {
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final JsonMapper jsonMapper = new JsonMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void answersTheSameRateInCborAsInJson() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/tollrate/1000").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/tollrate/1000").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        TollRate fromCbor = cborMapper.readValue(cbor, TollRate.class);
+        assertEquals(1000, fromCbor.stationId().intValue());
+        assertEquals(jsonMapper.readValue(json, TollRate.class), fromCbor);
+    }
+
+    @Test
+    void quotesRoundTripInCbor() throws Exception {
+        byte[] request = cborMapper.writeValueAsBytes(List.of(
+                Map.of("stationId", 1001, "at", "2026-01-05T08:00:00Z"),
+                Map.of("stationId", 9999, "at", "2026-01-05T08:00:00Z")));
+
+        byte[] response = mockMvc.perform(post("/tollrate/quotes")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        TollRate[] quotes = cborMapper.readValue(response, TollRate[].class);
+        assertEquals(2, quotes.length);
+        assertEquals(1001, quotes[0].stationId().intValue());
+        assertEquals(1.05f, quotes[0].currentRate().floatValue());
+        assertEquals(9999, quotes[1].stationId().intValue());
+        assertNull(quotes[1].currentRate());
+    }
+
+    @Test
+    void followsTheClientsQualityValues() throws Exception {
+        mockMvc.perform(get("/tollrate/1000").header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/tollrate/1000").header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void answersJsonToAMalformedAcceptHeader() throws Exception {
+        mockMvc.perform(get("/tollrate/1000").header(HttpHeaders.ACCEPT, "cbor please"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+}
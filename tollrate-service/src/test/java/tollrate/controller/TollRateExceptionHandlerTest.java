@@ -0,0 +1,31 @@
+package tollrate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TollRateExceptionHandlerTest {
+
+    private final TollRateExceptionHandler handler = new TollRateExceptionHandler();
+
+    @Test
+    void answersBadRequestWithTheMessage() {
+        ResponseEntity<Map<String, String>> response =
+                handler.handleInvalidInput(new IllegalArgumentException("Duplicate station id 7"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("error", "Duplicate station id 7"), response.getBody());
+    }
+
+    @Test
+    void answersBadRequestWhenTheExceptionHasNoMessage() {
+        ResponseEntity<Map<String, String>> response = handler.handleInvalidInput(new IllegalArgumentException());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("error", "Invalid request"), response.getBody());
+    }
+}
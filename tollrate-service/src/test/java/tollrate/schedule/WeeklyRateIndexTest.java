@@ -0,0 +1,94 @@
+package tollrate.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WeeklyRateIndexTest {
+
+    // 2026-01-05 is a Monday.
+    private static final String MONDAY = "2026-01-05";
+    private static final String TUESDAY = "2026-01-06";
+    private static final String SATURDAY = "2026-01-10";
+    private static final String SUNDAY = "2026-01-11";
+
+    @Test
+    void wrapsPastMidnightIntoTheNextDay() {
+        WeeklyRateIndex index = compile(band(DayType.WEEKDAY, "22:00", "06:00", 2f));
+
+        assertEquals(2f, index.rateAt(at(MONDAY, "23:00")));
+        assertEquals(2f, index.rateAt(at(TUESDAY, "05:59")));
+        assertEquals(1f, index.rateAt(at(TUESDAY, "06:00")));
+        // Friday night's band runs into Saturday morning, but no band starts on the weekend.
+        assertEquals(2f, index.rateAt(at(SATURDAY, "05:00")));
+        assertEquals(1f, index.rateAt(at(SUNDAY, "05:00")));
+        assertEquals(1f, index.rateAt(at(MONDAY, "05:00")));
+    }
+
+    @Test
+    void wrapsPastSundayIntoMonday() {
+        WeeklyRateIndex index = compile(band(DayType.WEEKEND, "22:00", "06:00", 3f));
+
+        assertEquals(3f, index.rateAt(at(SUNDAY, "23:30")));
+        assertEquals(3f, index.rateAt(at(MONDAY, "00:00")));
+        assertEquals(3f, index.rateAt(at(MONDAY, "05:59")));
+        assertEquals(1f, index.rateAt(at(MONDAY, "06:00")));
+    }
+
+    @Test
+    void equalStartAndEndCoverTheWholeDay() {
+        WeeklyRateIndex index = compile(band(DayType.EVERY_DAY, "08:00", "08:00", 2f));
+
+        assertEquals(2f, index.rateAt(at(MONDAY, "07:59")));
+        assertEquals(2f, index.rateAt(at(TUESDAY, "08:00")));
+        assertEquals(2f, index.rateAt(at(SUNDAY, "23:59")));
+        assertEquals(1, index.intervalCount());
+    }
+
+    @Test
+    void laterBandsOverrideEarlierOnes() {
+        WeeklyRateIndex index = compile(
+                band(DayType.EVERY_DAY, "07:00", "10:00", 2f),
+                band(DayType.WEEKDAY, "08:00", "09:00", 3f));
+
+        assertEquals(2f, index.rateAt(at(MONDAY, "07:30")));
+        assertEquals(3f, index.rateAt(at(MONDAY, "08:30")));
+        assertEquals(2f, index.rateAt(at(MONDAY, "09:30")));
+        assertEquals(2f, index.rateAt(at(SATURDAY, "08:30")));
+
+        WeeklyRateIndex reversed = compile(
+                band(DayType.WEEKDAY, "08:00", "09:00", 3f),
+                band(DayType.EVERY_DAY, "07:00", "10:00", 2f));
+
+        assertEquals(2f, reversed.rateAt(at(MONDAY, "08:30")));
+    }
+
+    @Test
+    void rejectsIncompleteOrNegativeBands() {
+        assertThrows(IllegalArgumentException.class, () -> compile((RateBand) null));
+        assertThrows(IllegalArgumentException.class, () -> compile(new RateBand(null, LocalTime.NOON, LocalTime.MIDNIGHT, 2f)));
+        assertThrows(IllegalArgumentException.class, () -> compile(new RateBand(DayType.WEEKDAY, null, LocalTime.MIDNIGHT, 2f)));
+        assertThrows(IllegalArgumentException.class, () -> compile(new RateBand(DayType.WEEKDAY, LocalTime.NOON, null, 2f)));
+        assertThrows(IllegalArgumentException.class, () -> compile(band(DayType.WEEKDAY, "08:00", "09:00", -1f)));
+        assertThrows(IllegalArgumentException.class, () -> compile(band(DayType.WEEKDAY, "08:00", "09:00", Float.NaN)));
+    }
+
+    private static WeeklyRateIndex compile(RateBand... bands) {
+        return WeeklyRateIndex.compile(new RateSchedule(7, 1f, ZoneId.of("UTC"), Arrays.asList(bands)));
+    }
+
+    private static RateBand band(DayType days, String start, String end, float multiplier) {
+        return new RateBand(days, LocalTime.parse(start), LocalTime.parse(end), multiplier);
+    }
+
+    private static Instant at(String date, String time) {
+        return Instant.parse(date + "T" + time + ":00Z");
+    }
+}
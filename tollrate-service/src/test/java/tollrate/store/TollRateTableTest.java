@@ -0,0 +1,100 @@
+package tollrate.store;
+
+import org.junit.jupiter.api.Test;
+import tollrate.domain.TollRate;
+import tollrate.wire.WireFormat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TollRateTableTest {
+
+    @Test
+    void findsEveryStationAndNothingElse() {
+        List<TollRate> rates = new ArrayList<>();
+        // Sequential and widely spread ids, given out of order, to exercise probing and sorting.
+        for (int i = 999; i >= 0; i--) {
+            rates.add(rate(i % 2 == 0 ? 1000 + i : i * 65_537));
+        }
+        TollRateTable table = TollRateTable.of(rates);
+
+        assertEquals(1000, table.size());
+        for (TollRate rate : rates) {
+            assertSame(rate, table.find(rate.stationId()));
+        }
+        assertNull(table.find(999));
+        assertNull(table.find(-1));
+        assertNull(TollRateTable.empty().find(1000));
+    }
+
+    @Test
+    void keepsRatesInStationOrderForRangeScans() {
+        TollRateTable table = TollRateTable.of(List.of(rate(1030), rate(1010), rate(1020)));
+
+        assertEquals(1010, table.rateAt(0).stationId().intValue());
+        assertEquals(1030, table.rateAt(2).stationId().intValue());
+        assertEquals(0, table.lowerBound(1000));
+        assertEquals(1, table.lowerBound(1011));
+        assertEquals(1, table.lowerBound(1020));
+        assertEquals(3, table.lowerBound(1031));
+    }
+
+    @Test
+    void encodesEachRateOncePerFormat() {
+        TollRateTable table = TollRateTable.of(List.of(rate(1000), rate(1001)));
+        AtomicInteger calls = new AtomicInteger();
+        BiFunction<TollRate, WireFormat, byte[]> encoder = (rate, format) -> {
+            calls.incrementAndGet();
+            return (format + ":" + rate.stationId()).getBytes(StandardCharsets.UTF_8);
+        };
+
+        byte[] json = table.encoded(1001, WireFormat.JSON, encoder);
+        assertSame(json, table.encoded(1001, WireFormat.JSON, encoder));
+        assertArrayEquals("JSON:1001".getBytes(StandardCharsets.UTF_8), json);
+        assertArrayEquals("CBOR:1001".getBytes(StandardCharsets.UTF_8), table.encoded(1001, WireFormat.CBOR, encoder));
+        assertEquals(2, calls.get());
+        assertNull(table.encoded(4242, WireFormat.JSON, encoder));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void contentHashFollowsTheRatesNotTheVersion() {
+        TollRateTable first = TollRateTable.of(List.of(rate(1000), rate(1001)), 1);
+        // Another instance, or this one after a restart, publishing the same rates.
+        TollRateTable sameRates = TollRateTable.of(List.of(rate(1001), rate(1000)), 7);
+        TollRateTable otherRates = TollRateTable.of(List.of(rate(1000), new TollRate(1001, 0.75f, "2024-01-01T00:00:00Z")), 1);
+
+        assertEquals(1, first.version());
+        assertEquals(7, sameRates.version());
+        assertEquals(first.contentHash(), sameRates.contentHash());
+        assertNotEquals(first.contentHash(), otherRates.contentHash());
+        assertNotEquals(first.contentHash(), TollRateTable.of(List.of(rate(1000)), 1).contentHash());
+    }
+
+    @Test
+    void rejectsDuplicateStationIds() {
+        assertThrows(IllegalArgumentException.class, () -> TollRateTable.of(List.of(rate(1000), rate(1001), rate(1000))));
+    }
+
+    @Test
+    void rejectsMissingStationIds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TollRateTable.of(List.of(rate(1000), new TollRate(null, 1.0f, "2024-01-01T00:00:00Z"))));
+        assertThrows(IllegalArgumentException.class, () -> TollRateTable.of(Arrays.asList(rate(1000), null)));
+    }
+
+    private static TollRate rate(int stationId) {
+        return new TollRate(stationId, 0.5f, "2024-01-01T00:00:00Z");
+    }
+}
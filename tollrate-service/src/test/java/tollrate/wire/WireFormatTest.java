@@ -0,0 +1,31 @@
+package tollrate.wire;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WireFormatTest {
+
+    @Test
+    void choosesCborOnlyWhenNamed() {
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/*"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("text/html, */*;q=0.8"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate((String) null));
+    }
+
+    @Test
+    void followsQualityValuesRatherThanHeaderOrder() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0.5, application/json"));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/json;q=0.5, application/cbor"));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("*/*;q=0.1, application/cbor"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0"));
+    }
+
+    @Test
+    void answersJsonToMalformedHeaders() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("cbor please"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=high"));
+    }
+}
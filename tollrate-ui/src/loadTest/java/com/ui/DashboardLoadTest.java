@@ -0,0 +1,97 @@
+package com.ui;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test for the UI pages.
+ *
+ * Each simulated dashboard session runs on its own virtual thread and requests a page again
+ * as soon as the previous one has rendered. The default of 2000 sessions is ten times
+ * Tomcat's default worker pool of 200 threads. With a blocking controller, sessions beyond
+ * the pool size queue behind the downstream latency. With the reactive controllers, every
+ * session is in flight at once and throughput grows with concurrency.
+ *
+ * Arguments: concurrent sessions, duration in seconds, then one or more page URLs that the
+ * sessions rotate through. The default URLs are the two UI pages.
+ * {@code /customerdetails} always calls fastpass-service. {@code /dashboard} only calls
+ * tollrate-service for a station the rate stream has not delivered yet.
+ */
+public class DashboardLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        List<URI> pages = args.length > 2
+                ? Arrays.stream(args, 2, args.length).map(URI::create).toList()
+                : List.of(URI.create("http://localhost:8081/dashboard?stationId=1000"),
+                          URI.create("http://localhost:8082/customerdetails?fastpassid=800"));
+
+        System.out.println("=== Dashboard Load Test ===");
+        System.out.printf("%d concurrent sessions for %d s against %s%n%n", sessions, durationSeconds, pages);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Runnable> sessionLoops = new ArrayList<>(sessions);
+            for (int session = 0; session < sessions; session++) {
+                URI page = pages.get(session % pages.size());
+                sessionLoops.add(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(page).timeout(Duration.ofSeconds(30)).build();
+                    while (System.nanoTime() < deadline) {
+                        long sentAt = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                ok.increment();
+                            } else {
+                                failed.increment();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                        latencies.add(System.nanoTime() - sentAt);
+                    }
+                });
+            }
+            sessionLoops.forEach(users::submit);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("Pages: %d ok, %d failed%n", ok.sum(), failed.sum());
+        System.out.printf("Throughput: %.0f pages/s with %d sessions%n", ok.sum() / elapsedSeconds, sessions);
+        System.out.printf("Page latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(sortedNanos.length * quantile) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
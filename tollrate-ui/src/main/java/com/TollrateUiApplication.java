@@ -1,12 +1,24 @@
 package com;
 
+import com.ui.LatencyAwareLoadBalancerConfiguration;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @SpringBootApplication
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 public class TollrateUiApplication {
 
 	public static void main(String[] args) {
@@ -19,4 +31,49 @@ public class TollrateUiApplication {
 		return WebClient.builder();
 	}
 
+	/**
+	 * Connection pool for tollrate-service, shared by every page request. Named after the
+	 * service so its reactor.netty.connection.provider.* gauges (active, idle, pending
+	 * connections) are reported per downstream.
+	 */
+	@Bean(destroyMethod = "dispose")
+	public ConnectionProvider tollRateServiceConnections(
+			@Value("${downstream.tollrate-service.max-connections:200}") int maxConnections,
+			@Value("${downstream.tollrate-service.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+			@Value("${downstream.tollrate-service.max-idle-time:30s}") Duration maxIdleTime) {
+		return ConnectionProvider.builder("tollrate-service")
+			.maxConnections(maxConnections)
+			.pendingAcquireTimeout(pendingAcquireTimeout)
+			.maxIdleTime(maxIdleTime)
+			.maxLifeTime(Duration.ofMinutes(5))
+			.evictInBackground(Duration.ofSeconds(30))
+			.metrics(true)
+			.build();
+	}
+
+	/**
+	 * The client page requests use to call tollrate-service: built once, load balanced, keeping
+	 * connections alive in the pool above and negotiating HTTP/2 (h2c) where the instance
+	 * supports it. Responses come back in the {@code accept} encoding, e.g. CBOR to
+	 * save serialization work on both ends.
+	 */
+	@Bean
+	public WebClient tollRateServiceWebClient(WebClient.Builder loadBalancedWebClientBuilder,
+			ConnectionProvider tollRateServiceConnections,
+			@Value("${downstream.tollrate-service.connect-timeout:1s}") Duration connectTimeout,
+			@Value("${downstream.tollrate-service.response-timeout:3s}") Duration responseTimeout,
+			@Value("${downstream.tollrate-service.accept:application/json}") String accept) {
+		HttpClient httpClient = HttpClient.create(tollRateServiceConnections)
+			.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+			.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+			.option(ChannelOption.SO_KEEPALIVE, true)
+			.responseTimeout(responseTimeout)
+			.metrics(true, uri -> uri.replaceAll("/\\d+", "/{id}"));
+		return loadBalancedWebClientBuilder.clone()
+			.baseUrl("http://tollrate-service")
+			.defaultHeader(HttpHeaders.ACCEPT, accept)
+			.clientConnector(new ReactorClientHttpConnector(httpClient))
+			.build();
+	}
+
 }
@@ -6,28 +6,31 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 @Controller
 @RequiredArgsConstructor
 public class DashboardController {
 
-	private final WebClient.Builder loadBalancedWebClientBuilder;
+	private final TollRateFeed tollRateFeed;
+	private final TollRateNearCache tollRateNearCache;
 
     @RequestMapping("/dashboard")
-	public String GetTollRate(@RequestParam(defaultValue = "1000") Integer stationId, Model m) {
+	public Mono<String> GetTollRate(@RequestParam(defaultValue = "1000") Integer stationId, Model m) {
 
-		WebClient client = loadBalancedWebClientBuilder.build();
-
-        TollRate rate = client.get()
-            .uri("http://tollrate-service/tollrate/" + stationId)
-            .retrieve()
-            .bodyToMono(TollRate.class)
-            .block();
-		
 		System.out.println("stationId: " + stationId);
-		m.addAttribute("rate", rate);
-		return "dashboard";
+
+		// Served from the pushed view; only a station the stream hasn't delivered yet
+		// (e.g. right after startup) falls back to the near cache, which calls the service
+		// at most once per station per TTL. A remote call is returned as a Mono, so the
+		// servlet thread is released while it is in flight.
+		TollRate pushed = tollRateFeed.find(stationId);
+		Mono<TollRate> rate = pushed != null ? Mono.just(pushed) : tollRateNearCache.get(stationId);
+
+		return rate.map(r -> {
+			m.addAttribute("rate", r);
+			return "dashboard";
+		});
 	}
     
 }
@@ -0,0 +1,97 @@
+package com.ui;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of toll rates, kept current by a single server-sent-event subscription
+ * to tollrate-service shared by every dashboard session.
+ *
+ * The stream starts with the current rate of every station and then carries each change,
+ * so page renders read the view instead of calling the service. If the stream drops, it
+ * is re-opened with backoff and the view keeps serving the last known rates meanwhile.
+ * Each (re)connect collects its initial snapshot separately and swaps it in whole once the
+ * service marks it complete, so stations removed while disconnected do not linger.
+ */
+@Component
+public class TollRateFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(TollRateFeed.class);
+
+    private final WebClient.Builder loadBalancedWebClientBuilder;
+    private volatile Map<Integer, TollRate> rates = new ConcurrentHashMap<>();
+    // Non-null while the initial snapshot of the current connection is still arriving.
+    // Only touched from the stream's signal thread, which delivers events one at a time.
+    private Map<Integer, TollRate> snapshot;
+    private Disposable subscription;
+
+    public TollRateFeed(WebClient.Builder loadBalancedWebClientBuilder) {
+        this.loadBalancedWebClientBuilder = loadBalancedWebClientBuilder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        subscription = loadBalancedWebClientBuilder.build().get()
+                .uri("http://tollrate-service/tollrates/stream")
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<TollRate>>() { })
+                .doOnSubscribe(s -> {
+                    logger.info("Subscribed to toll-rate stream");
+                    snapshot = new ConcurrentHashMap<>();
+                })
+                .repeatWhen(completed -> completed.delayElements(Duration.ofSeconds(1)))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> logger.warn("Toll-rate stream lost, reconnecting: {}",
+                                signal.failure().getMessage())))
+                .subscribe(this::apply);
+    }
+
+    private void apply(ServerSentEvent<TollRate> event) {
+        if ("snapshot-complete".equals(event.event())) {
+            if (snapshot != null) {
+                rates = snapshot;
+                snapshot = null;
+            }
+            return;
+        }
+        TollRate rate = event.data();
+        if (rate == null || rate.getStationId() == null) {
+            return;
+        }
+        Map<Integer, TollRate> target = snapshot != null ? snapshot : rates;
+        if ("tollrate-removed".equals(event.event())) {
+            target.remove(rate.getStationId());
+        } else {
+            target.put(rate.getStationId(), rate);
+        }
+    }
+
+    /**
+     * Returns the last known rate for the station, or {@code null} if the stream has not
+     * delivered one yet.
+     */
+    public TollRate find(Integer stationId) {
+        return rates.get(stationId);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ui;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded near cache of toll rates fetched from tollrate-service, keyed by station.
+ *
+ * An entry younger than {@code ttl} is served as is. An entry past its TTL but still within
+ * the {@code stale-while-revalidate} window is served immediately while one background call
+ * refreshes it. Anything older is a miss and is fetched before the page renders.
+ * Concurrent misses and refreshes for the same station share a single call. If a refresh
+ * fails, the stale entry stays until the window runs out.
+ *
+ * Each lookup is counted once in {@code tollrate.nearcache.requests}, tagged
+ * {@code result=hit|stale|miss|coalesced}. Background refreshes behind stale hits are not
+ * lookups and are counted separately in {@code tollrate.nearcache.refreshes}. Both are
+ * reported through the actuator metrics endpoint.
+ */
+@Component
+public class TollRateNearCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(TollRateNearCache.class);
+
+	private final WebClient tollRateServiceWebClient;
+	private final HedgedRequests hedgedRequests;
+	private final long ttlNanos;
+	private final long staleNanos;
+	private final int maxEntries;
+
+	private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<Integer, CompletableFuture<TollRate>> inFlight = new ConcurrentHashMap<>();
+
+	private final Counter hits;
+	private final Counter staleHits;
+	private final Counter misses;
+	private final Counter coalesced;
+	private final Counter refreshes;
+
+	public TollRateNearCache(WebClient tollRateServiceWebClient,
+							 HedgedRequests hedgedRequests,
+							 MeterRegistry meterRegistry,
+							 @Value("${tollrate.near-cache.ttl:30s}") Duration ttl,
+							 @Value("${tollrate.near-cache.stale-while-revalidate:5m}") Duration staleWhileRevalidate,
+							 @Value("${tollrate.near-cache.max-entries:10000}") int maxEntries) {
+		this.tollRateServiceWebClient = tollRateServiceWebClient;
+		this.hedgedRequests = hedgedRequests;
+		this.ttlNanos = ttl.toNanos();
+		this.staleNanos = ttl.plus(staleWhileRevalidate).toNanos();
+		this.maxEntries = maxEntries;
+		this.hits = requests(meterRegistry, "hit");
+		this.staleHits = requests(meterRegistry, "stale");
+		this.misses = requests(meterRegistry, "miss");
+		this.coalesced = requests(meterRegistry, "coalesced");
+		this.refreshes = Counter.builder("tollrate.nearcache.refreshes")
+			.description("Background refreshes of stale toll-rate near cache entries")
+			.register(meterRegistry);
+		meterRegistry.gauge("tollrate.nearcache.size", entries, Map::size);
+	}
+
+	public Mono<TollRate> get(Integer stationId) {
+		Entry entry = entries.get(stationId);
+		long now = System.nanoTime();
+		if (entry != null) {
+			long age = now - entry.loadedAt();
+			if (age < ttlNanos) {
+				hits.increment();
+				return Mono.just(entry.rate());
+			}
+			if (age < staleNanos) {
+				staleHits.increment();
+				load(stationId, false);
+				return Mono.just(entry.rate());
+			}
+		}
+		return Mono.fromFuture(load(stationId, true), true);
+	}
+
+	/**
+	 * Starts a fetch for the station unless one is already running, and returns the shared
+	 * result. A lookup that joins a running fetch is counted as coalesced, not as a miss. A
+	 * background refresh ({@code lookup} false) was already counted as a stale hit, so it
+	 * only counts as a refresh, and only when it starts a fetch.
+	 */
+	private CompletableFuture<TollRate> load(Integer stationId, boolean lookup) {
+		CompletableFuture<TollRate> created = new CompletableFuture<>();
+		CompletableFuture<TollRate> running = inFlight.putIfAbsent(stationId, created);
+		if (running != null) {
+			if (lookup) {
+				coalesced.increment();
+			}
+			return running;
+		}
+		(lookup ? misses : refreshes).increment();
+
+		hedgedRequests.hedge("tollrate", hedgeGroup -> tollRateServiceWebClient.get()
+				.uri("/tollrate/{stationId}", stationId)
+				.attribute(HedgeGroup.ATTRIBUTE, hedgeGroup)
+				.retrieve()
+				.bodyToMono(TollRate.class))
+			.subscribe(rate -> {
+				put(stationId, rate);
+				inFlight.remove(stationId, created);
+				created.complete(rate);
+			}, error -> {
+				logger.debug("Fetching toll rate for station {} failed: {}", stationId, error.getMessage());
+				inFlight.remove(stationId, created);
+				created.completeExceptionally(error);
+			}, () -> {
+				inFlight.remove(stationId, created);
+				created.complete(null);
+			});
+		return created;
+	}
+
+	private void put(Integer stationId, TollRate rate) {
+		entries.put(stationId, new Entry(rate, System.nanoTime()));
+		if (entries.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	/**
+	 * Brings the cache back under its bound: entries past the stale window go first, then
+	 * arbitrary ones. Eviction is approximate, because inserts and evictions can run
+	 * concurrently.
+	 */
+	private void evict() {
+		long now = System.nanoTime();
+		entries.values().removeIf(entry -> now - entry.loadedAt() >= staleNanos);
+		Iterator<Integer> keys = entries.keySet().iterator();
+		while (entries.size() > maxEntries && keys.hasNext()) {
+			keys.next();
+			keys.remove();
+		}
+	}
+
+	private static Counter requests(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("tollrate.nearcache.requests")
+			.description("Toll-rate near cache lookups by outcome")
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+
+	private record Entry(TollRate rate, long loadedAt) { }
+}
@@ -0,0 +1,41 @@
+package com.ui;
+
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instances already tried by the attempts of one hedged call. It travels as a WebClient
+ * request attribute, and {@link LatencyAwareLoadBalancer} steers each hedge to an instance
+ * no earlier attempt has used.
+ */
+public class HedgeGroup {
+
+    public static final String ATTRIBUTE = HedgeGroup.class.getName();
+
+    private final Set<String> instanceIds = ConcurrentHashMap.newKeySet();
+
+    boolean tried(String instanceId) {
+        return instanceIds.contains(instanceId);
+    }
+
+    void add(String instanceId) {
+        instanceIds.add(instanceId);
+    }
+
+    /**
+     * Returns the group carried by a load-balancer request, or {@code null} if the call is
+     * not hedged.
+     */
+    static HedgeGroup of(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes() != null
+                && context.getClientRequest().getAttributes().get(ATTRIBUTE) instanceof HedgeGroup group) {
+            return group;
+        }
+        return null;
+    }
+}
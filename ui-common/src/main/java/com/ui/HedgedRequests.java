@@ -0,0 +1,171 @@
+package com.ui;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hedges read-only downstream calls to cut tail latency.
+ *
+ * A call goes out once. If it has not answered within the recent p95 latency of that
+ * operation, one duplicate goes to a different instance (see {@link HedgeGroup}), and the
+ * first answer wins. The loser is left to finish rather than cancelled, so the load
+ * balancer still learns how slow its instance was.
+ *
+ * Extra load is capped by a budget. Every call earns {@code budget-percent}/100 of a hedge
+ * token, up to a small burst, and every hedge spends a whole token. When the budget runs
+ * out, calls simply wait for their first attempt. A service-wide slowdown therefore cannot
+ * double the traffic it receives.
+ *
+ * Outcomes are counted in {@code hedge.requests}, tagged with the operation and
+ * {@code outcome=primary|hedge_won|hedge_lost|budget_exhausted}.
+ */
+@Component
+public class HedgedRequests {
+
+    private static final long TOKEN = 1_000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long tokensPerCall;
+    private final double quantile;
+    private final long minDelayNanos;
+    private final long initialDelayNanos;
+
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+    private final Map<String, DelayEstimator> delays = new ConcurrentHashMap<>();
+
+    public HedgedRequests(MeterRegistry meterRegistry,
+                          @Value("${hedging.enabled:true}") boolean enabled,
+                          @Value("${hedging.budget-percent:5}") double budgetPercent,
+                          @Value("${hedging.quantile:0.95}") double quantile,
+                          @Value("${hedging.min-delay:5ms}") Duration minDelay,
+                          @Value("${hedging.initial-delay:50ms}") Duration initialDelay) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.tokensPerCall = Math.round(budgetPercent / 100 * TOKEN);
+        this.quantile = quantile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.initialDelayNanos = initialDelay.toNanos();
+    }
+
+    /**
+     * Runs {@code call}, hedging it once if it is slow. The function is invoked once per
+     * attempt and must pass the group to the WebClient request as the
+     * {@link HedgeGroup#ATTRIBUTE} attribute.
+     */
+    public <T> Mono<T> hedge(String operation, Function<HedgeGroup, Mono<T>> call) {
+        if (!enabled) {
+            return call.apply(new HedgeGroup());
+        }
+        DelayEstimator delay = delays.computeIfAbsent(operation, op -> new DelayEstimator());
+        tokens.getAndUpdate(current -> Math.min(MAX_TOKENS, current + tokensPerCall));
+
+        return Mono.create(sink -> {
+            HedgeGroup group = new HedgeGroup();
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicBoolean hedged = new AtomicBoolean();
+            // Claimed either by the timer (to send or skip the hedge) or by a primary that
+            // failed first, so an error is not turned into a retry.
+            AtomicBoolean hedgeSlotClaimed = new AtomicBoolean();
+            // The primary attempt, plus the hedge that may still follow.
+            AtomicInteger pending = new AtomicInteger(2);
+
+            Function<Boolean, Disposable> attempt = isHedge -> {
+                long startedAt = System.nanoTime();
+                return call.apply(group).subscribe(value -> {
+                    delay.record(System.nanoTime() - startedAt);
+                    if (done.compareAndSet(false, true)) {
+                        count(operation, isHedge ? "hedge_won" : hedged.get() ? "hedge_lost" : "primary");
+                        sink.success(value);
+                    }
+                }, error -> {
+                    if (!isHedge && hedgeSlotClaimed.compareAndSet(false, true)) {
+                        pending.decrementAndGet();
+                    }
+                    if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                        sink.error(error);
+                    }
+                }, () -> {
+                    if (done.compareAndSet(false, true)) {
+                        sink.success();
+                    }
+                });
+            };
+
+            attempt.apply(false);
+            Disposable timer = Schedulers.parallel().schedule(() -> {
+                if (done.get() || !hedgeSlotClaimed.compareAndSet(false, true)) {
+                    return;
+                }
+                if (!tryAcquire()) {
+                    pending.decrementAndGet();
+                    count(operation, "budget_exhausted");
+                    return;
+                }
+                hedged.set(true);
+                attempt.apply(true);
+            }, delay.current(), TimeUnit.NANOSECONDS);
+            sink.onDispose(timer);
+        });
+    }
+
+    private boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter("hedge.requests", "operation", operation, "outcome", outcome).increment();
+    }
+
+    /**
+     * Recent latency quantile of one operation: the last {@code WINDOW} attempt latencies
+     * in a ring, with the quantile recomputed every {@code RECOMPUTE_EVERY} samples.
+     */
+    private final class DelayEstimator {
+
+        private static final int WINDOW = 1024;
+        private static final int RECOMPUTE_EVERY = 64;
+
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+        private volatile long current = initialDelayNanos;
+
+        synchronized void record(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            if (next % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                current = Math.max(minDelayNanos, sorted[(int) Math.min(count - 1, Math.ceil(count * quantile) - 1)]);
+            }
+        }
+
+        long current() {
+            return current;
+        }
+    }
+}
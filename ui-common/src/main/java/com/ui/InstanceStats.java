@@ -0,0 +1,94 @@
+package com.ui;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live view of one service instance as seen from this client: requests outstanding,
+ * exponentially weighted moving average of response latency, and outlier ejection state.
+ */
+class InstanceStats {
+
+    private final String instanceId;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+    private long samples;
+    private int consecutiveFailures;
+    private volatile long ejectedUntilNanos;
+
+    /**
+     * @param seedEwmaNanos latency to assume until the first answer arrives, typically that
+     *                      of the instance's peers; 0 when nothing is known yet
+     */
+    InstanceStats(String instanceId, double seedEwmaNanos) {
+        this.instanceId = instanceId;
+        this.ewmaNanos = seedEwmaNanos;
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Folds one finished request into the average. The weight of a sample grows with the
+     * time since the previous one, so an instance that was idle for a while is judged
+     * mostly on its latest answers rather than on history.
+     */
+    synchronized void completed(long latencyNanos, boolean failed, long decayNanos) {
+        outstanding.decrementAndGet();
+        long now = System.nanoTime();
+        if (samples == 0) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double alpha = 1 - Math.exp(-(double) Math.max(0, now - lastUpdateNanos) / decayNanos);
+            ewmaNanos += alpha * (latencyNanos - ewmaNanos);
+        }
+        lastUpdateNanos = now;
+        samples++;
+        consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+    }
+
+    /**
+     * Lower is better: the expected wait behind the requests already queued on the instance.
+     * An instance without samples scores with its seed latency, so it starts out as an
+     * average peer instead of drawing every request until its first answers come back.
+     */
+    synchronized double score() {
+        return ewmaNanos * (outstanding.get() + 1);
+    }
+
+    synchronized double ewmaNanos() {
+        return ewmaNanos;
+    }
+
+    synchronized long samples() {
+        return samples;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    boolean isEjected(long now) {
+        return now - ejectedUntilNanos < 0;
+    }
+
+    /**
+     * Takes the instance out of rotation until the deadline. Failure history is cleared
+     * and the average is kept, so when the instance comes back it gets traffic again but
+     * is ejected again quickly if it is still bad.
+     */
+    synchronized void eject(long untilNanos) {
+        ejectedUntilNanos = untilNanos;
+        consecutiveFailures = 0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the instance with the least expected wait instead of going round-robin.
+ *
+ * Each choice samples two instances at random and takes the one with the lower score:
+ * latency average times (outstanding requests + 1). Sampling two ("power of two choices")
+ * keeps clients from all piling onto the same instance, while still steering clear of one
+ * that is slow or backed up. Instances ejected as outliers by {@link LoadBalancerStats} are
+ * skipped, as are instances an earlier attempt of the same hedged call went to (see
+ * {@link HedgeGroup}); if that rules out every instance, all of them are considered again.
+ *
+ * The balancer is also a {@link LoadBalancerLifecycle}, which is how it learns the
+ * outcome and latency of each request it routed.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final LoadBalancerStats loadBalancerStats;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, LoadBalancerStats loadBalancerStats) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.loadBalancerStats = loadBalancerStats;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        HedgeGroup hedgeGroup = HedgeGroup.of(request);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances, hedgeGroup);
+            if (hedgeGroup != null && response.hasServer()) {
+                hedgeGroup.add(LoadBalancerStats.instanceId(response.getServer()));
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, HedgeGroup hedgeGroup) {
+        if (instances.isEmpty()) {
+            logger.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        loadBalancerStats.retain(serviceId, instances);
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!loadBalancerStats.stats(serviceId, instance).isEjected(now)
+                    && (hedgeGroup == null || !hedgeGroup.tried(LoadBalancerStats.instanceId(instance)))) {
+                candidates.add(instance);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        InstanceStats statsA = loadBalancerStats.stats(serviceId, a);
+        InstanceStats statsB = loadBalancerStats.stats(serviceId, b);
+        double scoreA = statsA.score();
+        double scoreB = statsB.score();
+        if (scoreA == scoreB) {
+            return new DefaultResponse(statsA.outstanding() <= statsB.outstanding() ? a : b);
+        }
+        return new DefaultResponse(scoreA < scoreB ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        loadBalancerStats.stats(serviceId, lbResponse.getServer()).started();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long startedAt = completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context
+                ? context.getRequestStartTime() : 0;
+        long latency = startedAt == 0 ? 0 : System.nanoTime() - startedAt;
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || response == null || response.getHttpStatus() == null || response.getHttpStatus().is5xxServerError();
+        loadBalancerStats.completed(serviceId, loadBalancerStats.stats(serviceId, lbResponse.getServer()), latency, failed);
+    }
+}
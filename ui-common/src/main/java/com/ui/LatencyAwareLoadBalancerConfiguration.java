@@ -0,0 +1,28 @@
+package com.ui;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load-balancer client configuration installing {@link LatencyAwareLoadBalancer} for every
+ * downstream. Registered through {@code @LoadBalancerClients}, so it lives in each
+ * per-service child context and is deliberately not a {@code @Configuration} picked up by
+ * component scanning. With {@code loadbalancer.latency-aware.enabled=false} no balancer is
+ * defined here and Spring Cloud falls back to its round-robin default.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "loadbalancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory,
+                                                             LoadBalancerStats loadBalancerStats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, loadBalancerStats);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-instance request statistics for every load-balanced downstream, and the outlier
+ * ejection rules applied to them.
+ *
+ * An instance is ejected for {@code ejection-time} after {@code consecutive-failures}
+ * failed requests in a row, or when its latency average exceeds {@code latency-factor}
+ * times that of the fastest instance of the same service. No more than
+ * {@code max-ejection-percent} of a service's instances are ever ejected at once, so a
+ * service-wide slowdown degrades to plain least-loaded balancing instead of emptying the
+ * pool.
+ *
+ * Statistics follow the instance list discovery reports: instances that disappear are
+ * dropped, and a new one starts at the median latency of its service's other instances.
+ */
+@Component
+public class LoadBalancerStats {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadBalancerStats.class);
+
+    private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+    private final long decayNanos;
+    private final int consecutiveFailures;
+    private final double latencyFactor;
+    private final long minSamples;
+    private final long ejectionNanos;
+    private final int maxEjectionPercent;
+
+    public LoadBalancerStats(@Value("${loadbalancer.latency-aware.decay:10s}") Duration decay,
+                             @Value("${loadbalancer.latency-aware.outlier.consecutive-failures:5}") int consecutiveFailures,
+                             @Value("${loadbalancer.latency-aware.outlier.latency-factor:3.0}") double latencyFactor,
+                             @Value("${loadbalancer.latency-aware.outlier.min-samples:20}") long minSamples,
+                             @Value("${loadbalancer.latency-aware.outlier.ejection-time:30s}") Duration ejectionTime,
+                             @Value("${loadbalancer.latency-aware.outlier.max-ejection-percent:50}") int maxEjectionPercent) {
+        this.decayNanos = decay.toNanos();
+        this.consecutiveFailures = consecutiveFailures;
+        this.latencyFactor = latencyFactor;
+        this.minSamples = minSamples;
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    InstanceStats stats(String serviceId, ServiceInstance instance) {
+        Map<String, InstanceStats> instances = services.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>());
+        String instanceId = instanceId(instance);
+        InstanceStats stats = instances.get(instanceId);
+        if (stats != null) {
+            return stats;
+        }
+        double seed = medianEwma(instances);
+        return instances.computeIfAbsent(instanceId, id -> new InstanceStats(id, seed));
+    }
+
+    /**
+     * Forgets instances of the service that are no longer in {@code current}, so departed
+     * instances neither leak nor count towards the ejection limit.
+     */
+    void retain(String serviceId, List<ServiceInstance> current) {
+        Map<String, InstanceStats> instances = services.get(serviceId);
+        if (instances == null) {
+            return;
+        }
+        // The usual case: the same instances as last time.
+        if (instances.size() == current.size()
+                && current.stream().allMatch(instance -> instances.containsKey(instanceId(instance)))) {
+            return;
+        }
+        Set<String> ids = new HashSet<>(current.size() * 2);
+        for (ServiceInstance instance : current) {
+            ids.add(instanceId(instance));
+        }
+        instances.keySet().retainAll(ids);
+    }
+
+    void completed(String serviceId, InstanceStats stats, long latencyNanos, boolean failed) {
+        stats.completed(latencyNanos, failed, decayNanos);
+        Map<String, InstanceStats> instances = services.get(serviceId);
+
+        long now = System.nanoTime();
+        if (stats.isEjected(now) || !canEject(instances, now)) {
+            return;
+        }
+        if (stats.consecutiveFailures() >= consecutiveFailures) {
+            logger.warn("Ejecting {} instance {} after {} consecutive failures",
+                    serviceId, stats.instanceId(), stats.consecutiveFailures());
+            stats.eject(now + ejectionNanos);
+            return;
+        }
+        if (stats.samples() >= minSamples) {
+            double fastest = fastestEwma(instances, now);
+            if (fastest > 0 && stats.ewmaNanos() > fastest * latencyFactor) {
+                logger.warn("Ejecting {} instance {}: latency average {} ms against {} ms for the fastest instance",
+                        serviceId, stats.instanceId(), Math.round(stats.ewmaNanos() / 1e6), Math.round(fastest / 1e6));
+                stats.eject(now + ejectionNanos);
+            }
+        }
+    }
+
+    static String instanceId(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private boolean canEject(Map<String, InstanceStats> instances, long now) {
+        long ejected = instances.values().stream().filter(stats -> stats.isEjected(now)).count();
+        return (ejected + 1) * 100 <= (long) instances.size() * maxEjectionPercent;
+    }
+
+    private static double medianEwma(Map<String, InstanceStats> instances) {
+        double[] ewmas = instances.values().stream()
+                .filter(stats -> stats.samples() > 0)
+                .mapToDouble(InstanceStats::ewmaNanos)
+                .toArray();
+        if (ewmas.length == 0) {
+            return 0;
+        }
+        Arrays.sort(ewmas);
+        int middle = ewmas.length / 2;
+        return ewmas.length % 2 == 1 ? ewmas[middle] : (ewmas[middle - 1] + ewmas[middle]) / 2;
+    }
+
+    private double fastestEwma(Map<String, InstanceStats> instances, long now) {
+        double fastest = 0;
+        for (InstanceStats stats : instances.values()) {
+            if (!stats.isEjected(now) && stats.samples() >= minSamples
+                    && (fastest == 0 || stats.ewmaNanos() < fastest)) {
+                fastest = stats.ewmaNanos();
+            }
+        }
+        return fastest;
+    }
+}